@@ -20,7 +20,11 @@ public class InputComponent extends Component {
     }
 
     public Vector2 getForwardDirection(Rotation rot) {
-        // returns direction vector facing in direction of entity up when has 0 rotation
-        return new Vector2(0, 1).rotate(rot.angle);
+        return getForwardDirection(rot, new Vector2());
+    }
+
+    public Vector2 getForwardDirection(Rotation rot, Vector2 out) {
+        // sets out to the direction vector facing in direction of entity up when has 0 rotation
+        return out.set(0, 1).rotate(rot.angle);
     }
 }
@@ -0,0 +1,35 @@
+package io.github.emergentorganization.emergent2dcore.components;
+
+import com.artemis.Component;
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * Attaches an entity to a parent entity. The TransformHierarchySystem then sets this entity's
+ * Position (and Rotation and Scale, if it has them) from the parent's, so it follows the parent around.
+ */
+public class ParentTransform extends Component {
+    public static final int NO_PARENT = -1;
+
+    /**
+     * entity id of the parent
+     **/
+    public int parent = NO_PARENT;
+    /**
+     * Position relative to the parent's position, in the parent's unrotated frame at default scale
+     **/
+    public final Vector2 offset = new Vector2();
+    /**
+     * In degrees, CCW rotation relative to the parent's
+     **/
+    public float angle = 0;
+    /**
+     * multiplied with the parent's scale
+     **/
+    public float scale = 1;
+    public boolean deleteWithParent = false;
+
+    public void set(int parent, float offsetX, float offsetY) {
+        this.parent = parent;
+        this.offset.set(offsetX, offsetY);
+    }
+}
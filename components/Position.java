@@ -1,13 +1,15 @@
 package io.github.emergentorganization.emergent2dcore.components;
 
 import com.artemis.Component;
+import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
 import io.github.emergentorganization.emergent2dcore.components.Bounds;
 
 /**
  * defines position of an entity.
  * The Position.position Vector2 defines the bottom-left by default,
- * if you want the position of the center of the object's bounds, use getCenter()
+ * if you want the position of the center of the object's bounds, use getCenter(),
+ * or read the cached WorldBounds.center of entities handled by the WorldBoundsSystem
  */
 public class Position extends Component {
     public final Vector2 position = new Vector2();
@@ -16,18 +18,32 @@ public class Position extends Component {
      * Returns the center of the entity
      * @param bounds Bounds of the same entity that this component is attached to
      * @param angle Rotation, in degrees, of the same entity that this component is attached to
-     * @return The exact center of the entity
+     * @return The exact center of the entity, in a new Vector2
      */
     public Vector2 getCenter(Bounds bounds, float angle) {
-        Vector2 center = position.cpy();
-        center.x += bounds.width / 2f;
-        center.y += bounds.height / 2f;
+        return getCenter(bounds, angle, new Vector2());
+    }
+
+    /**
+     * Stores the center of the entity in the given vector, without allocating
+     * @param bounds Bounds of the same entity that this component is attached to
+     * @param angle Rotation, in degrees, of the same entity that this component is attached to
+     * @param out Vector the center is written to
+     * @return out
+     */
+    public Vector2 getCenter(Bounds bounds, float angle, Vector2 out) {
+        float dx = bounds.width / 2f;
+        float dy = bounds.height / 2f;
         if (angle != 0.0f) {
-            Vector2 diff = center.cpy().sub(position); // length and default angle of vector between origin and center
-            diff.set(Math.abs(diff.x), Math.abs(diff.y)); // ensure vector is pointing in the correct direction (NE)
-            diff.rotate(angle); // Rotate vector so that it points to actual center of the rotated object
-            center.set(position.x + diff.x, position.y + diff.y); // offset the final vec by the new offset
+            // rotate the (NE pointing) origin-to-center vector so that it points to the actual center of the rotated object
+            dx = Math.abs(dx);
+            dy = Math.abs(dy);
+            float cos = MathUtils.cosDeg(angle);
+            float sin = MathUtils.sinDeg(angle);
+            float rotatedX = dx * cos - dy * sin;
+            dy = dx * sin + dy * cos;
+            dx = rotatedX;
         }
-        return center;
+        return out.set(position.x + dx, position.y + dy);
     }
 }
@@ -1,29 +1,41 @@
 package io.github.emergentorganization.emergent2dcore.components;
 
 import com.artemis.Component;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import io.github.emergentorganization.cellrpg.core.RenderIndex;
+import io.github.emergentorganization.emergent2dcore.systems.render.VisualRegistry;
 
 /**
  * This is used for both animation and static images.
  */
 public class Visual extends Component {
 
-    public String id; // the visual id, this is resolved through a manager.
+    public String id; // the visual id, this is resolved through a manager. Change it with setTexture/setAnimation.
+    public int handle = VisualRegistry.NONE; // pre-resolved id, see VisualRegistry
+    public String handleId; // the id handle and region were resolved for; the RenderSystem re-resolves if id differs
     public boolean isAnimation = false;
     public RenderIndex index = RenderIndex.BACKGROUND;
 
     public float stateTime; // animation timestep
+    public boolean paused = false; // stops advancing stateTime
+    public TextureRegion region; // current texture or animation frame, kept up to date by the RenderSystem
 
     public void setAnimation(String id) {
         this.id = id;
+        handle = VisualRegistry.getHandle(id);
+        handleId = id;
         isAnimation = true;
+        region = null;
 
         stateTime = 0; // reset animation
     }
 
     public void setTexture(String id) {
         this.id = id;
+        handle = VisualRegistry.getHandle(id);
+        handleId = id;
         isAnimation = false;
+        region = VisualRegistry.getRegion(handle);
     }
 
 }
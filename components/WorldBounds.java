@@ -0,0 +1,36 @@
+package io.github.emergentorganization.emergent2dcore.components;
+
+import com.artemis.Component;
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * World-space center and axis-aligned bounding box of an entity, derived from its Position, Bounds,
+ * Rotation and Scale. Added to and kept up to date by the WorldBoundsSystem; do not write to it.
+ */
+public class WorldBounds extends Component {
+    /**
+     * Center of the rotated and scaled bounds
+     **/
+    public final Vector2 center = new Vector2();
+    public float minX, minY, maxX, maxY;
+
+    public boolean contains(float x, float y) {
+        return x >= minX && x <= maxX && y >= minY && y <= maxY;
+    }
+
+    public boolean overlaps(float minX, float minY, float maxX, float maxY) {
+        return this.maxX >= minX && this.minX <= maxX && this.maxY >= minY && this.minY <= maxY;
+    }
+
+    public boolean overlaps(WorldBounds other) {
+        return overlaps(other.minX, other.minY, other.maxX, other.maxY);
+    }
+
+    public float getWidth() {
+        return maxX - minX;
+    }
+
+    public float getHeight() {
+        return maxY - minY;
+    }
+}
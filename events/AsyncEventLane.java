@@ -0,0 +1,373 @@
+package io.github.emergentorganization.emergent2dcore.events;
+
+import io.github.emergentorganization.cellrpg.events.EntityEvent;
+import io.github.emergentorganization.cellrpg.events.GameEvent;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.EnumMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Delivers events to DeferredEventListeners on a thread of its own, for consumers that need not run in step
+ * with the simulation (audio, logging, analytics). Posting only copies the event into a bounded lock-free queue,
+ * so a slow consumer costs the posting system nothing unless the overflow policy is BLOCK.
+ *
+ * The queue is an array of slots, each with a sequence number telling producers and the consumer whose turn it is
+ * (Dmitry Vyukov's bounded queue); any thread may post. Listeners run on the lane's thread, so they must
+ * hand results to the simulation thread safely (e.g. through an atomic).
+ */
+public class AsyncEventLane implements EventListener {
+    public enum OverflowPolicy {
+        /**
+         * discard the oldest queued event to make room
+         **/
+        DROP_OLDEST,
+        /**
+         * wait until the consumer makes room
+         **/
+        BLOCK,
+        /**
+         * discard the new event
+         **/
+        COUNT_AND_DROP
+    }
+
+    public static final int DEFAULT_CAPACITY = 1024;
+    private static final long BLOCK_PARK_NANOS = 50000;
+
+    private final Logger logger = LogManager.getLogger(getClass());
+
+    private static class Slot {
+        GameEvent event;
+        int entityId;
+        EntityEvent source;
+        long postedNanos;
+    }
+
+    private final EventDispatcher dispatcher;
+    private final OverflowPolicy policy;
+    private final Slot[] slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong enqueuePosition = new AtomicLong();
+    private final AtomicLong dequeuePosition = new AtomicLong();
+
+    private final EnumMap<GameEvent, DeferredEventListener[]> listeners =
+            new EnumMap<GameEvent, DeferredEventListener[]>(GameEvent.class);
+    private volatile DeferredEventListener[][] listenersByOrdinal = new DeferredEventListener[GameEvent.values().length][];
+
+    private final Thread consumer;
+    private final AtomicBoolean started = new AtomicBoolean();
+    private volatile boolean running = true;
+    private volatile boolean consumerIdle = false;
+
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile long delivered = 0;
+    private volatile long maxDepth = 0;
+    private volatile long lastLatencyNanos = 0;
+    private volatile long maxLatencyNanos = 0;
+    private volatile long totalLatencyNanos = 0;
+
+    public AsyncEventLane(EventDispatcher dispatcher) {
+        this(dispatcher, DEFAULT_CAPACITY, OverflowPolicy.COUNT_AND_DROP);
+    }
+
+    /**
+     * The lane's thread is started by the first event posted; call shutdown() when done with the lane.
+     * @param capacity events queued at most; rounded up to a power of two
+     */
+    public AsyncEventLane(EventDispatcher dispatcher, int capacity, OverflowPolicy policy) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("capacity must be at least 2: " + capacity);
+        }
+        int powerOfTwo = Integer.highestOneBit(capacity);
+        if (powerOfTwo < capacity) {
+            powerOfTwo <<= 1;
+        }
+        this.dispatcher = dispatcher;
+        this.policy = policy;
+        mask = powerOfTwo - 1;
+        slots = new Slot[powerOfTwo];
+        sequences = new AtomicLongArray(powerOfTwo);
+        for (int i = 0; i < powerOfTwo; i++) {
+            slots[i] = new Slot();
+            sequences.set(i, i);
+        }
+        consumer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                consume();
+            }
+        }, "async-event-lane");
+        consumer.setDaemon(true);
+    }
+
+    /**
+     * Delivers the dispatcher's events of the type to the listener, on the lane's thread.
+     * Call it from the thread dispatching events.
+     */
+    public void subscribe(GameEvent type, DeferredEventListener listener) {
+        DeferredEventListener[] typed = listeners.get(type);
+        if (typed == null) {
+            typed = new DeferredEventListener[0];
+            dispatcher.subscribe(type, this);
+        }
+        DeferredEventListener[] copy = new DeferredEventListener[typed.length + 1];
+        System.arraycopy(typed, 0, copy, 0, typed.length);
+        copy[typed.length] = listener;
+        listeners.put(type, copy);
+        publishListeners();
+    }
+
+    public void unsubscribe(GameEvent type, DeferredEventListener listener) {
+        DeferredEventListener[] typed = listeners.get(type);
+        if (typed == null) {
+            return;
+        }
+        for (int i = 0; i < typed.length; i++) {
+            if (typed[i] == listener) {
+                if (typed.length == 1) {
+                    listeners.remove(type);
+                    dispatcher.unsubscribe(type, this);
+                } else {
+                    DeferredEventListener[] copy = new DeferredEventListener[typed.length - 1];
+                    System.arraycopy(typed, 0, copy, 0, i);
+                    System.arraycopy(typed, i + 1, copy, i, copy.length - i);
+                    listeners.put(type, copy);
+                }
+                publishListeners();
+                return;
+            }
+        }
+    }
+
+    private void publishListeners() {
+        DeferredEventListener[][] byOrdinal = new DeferredEventListener[GameEvent.values().length][];
+        for (GameEvent type : listeners.keySet()) {
+            byOrdinal[type.ordinal()] = listeners.get(type);
+        }
+        listenersByOrdinal = byOrdinal;  // volatile write, seen by the consumer's next event
+    }
+
+    /**
+     * Queues an event received from the dispatcher.
+     */
+    @Override
+    public void notify(EntityEvent event) {
+        post(event.event, -1, event);
+    }
+
+    /**
+     * Queues an event without an EntityEvent having to be created for it. Safe from any thread.
+     * @return false if the event was dropped
+     */
+    public boolean post(GameEvent type, int entityId) {
+        return post(type, entityId, null);
+    }
+
+    private boolean post(GameEvent type, int entityId, EntityEvent source) {
+        if (!running) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        if (!started.get() && started.compareAndSet(false, true)) {
+            consumer.start();
+        }
+        while (!offer(type, entityId, source)) {
+            switch (policy) {
+                case DROP_OLDEST:
+                    if (discardOldest()) {
+                        dropped.incrementAndGet();
+                    }
+                    break;
+                case BLOCK:
+                    if (!running) {
+                        dropped.incrementAndGet();
+                        return false;
+                    }
+                    LockSupport.unpark(consumer);
+                    LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                    break;
+                default:
+                    dropped.incrementAndGet();
+                    return false;
+            }
+        }
+        long depth = getDepth();
+        if (depth > maxDepth) {
+            maxDepth = depth;  // racy between producers; a close enough high-water mark
+        }
+        if (consumerIdle) {
+            LockSupport.unpark(consumer);
+        }
+        return true;
+    }
+
+    private boolean offer(GameEvent type, int entityId, EntityEvent source) {
+        long position = enqueuePosition.get();
+        int index;
+        while (true) {
+            index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (enqueuePosition.compareAndSet(position, position + 1)) {
+                    break;  // the slot is ours
+                }
+                position = enqueuePosition.get();
+            } else if (difference < 0) {
+                return false;  // full: the slot still holds an event from a lap ago
+            } else {
+                position = enqueuePosition.get();  // another producer took it
+            }
+        }
+        Slot slot = slots[index];
+        slot.event = type;
+        slot.entityId = entityId;
+        slot.source = source;
+        slot.postedNanos = System.nanoTime();
+        sequences.lazySet(index, position + 1);  // hands the slot to the consumer
+        return true;
+    }
+
+    /**
+     * Takes the oldest event into out, if there is one. Producers call this too, to make room under DROP_OLDEST.
+     */
+    private boolean poll(DeferredEvent out, long[] postedNanos) {
+        long position = dequeuePosition.get();
+        int index;
+        while (true) {
+            index = (int) (position & mask);
+            long difference = sequences.get(index) - (position + 1);
+            if (difference == 0) {
+                if (dequeuePosition.compareAndSet(position, position + 1)) {
+                    break;
+                }
+                position = dequeuePosition.get();
+            } else if (difference < 0) {
+                return false;  // empty
+            } else {
+                position = dequeuePosition.get();
+            }
+        }
+        Slot slot = slots[index];
+        if (out != null) {
+            out.set(slot.event, slot.entityId, slot.source);
+            postedNanos[0] = slot.postedNanos;
+        }
+        slot.event = null;
+        slot.source = null;
+        sequences.lazySet(index, position + mask + 1);  // hands the slot to the producers of the next lap
+        return true;
+    }
+
+    private boolean discardOldest() {
+        return poll(null, null);
+    }
+
+    private void consume() {
+        DeferredEvent event = new DeferredEvent();
+        long[] postedNanos = new long[1];
+        while (running || getDepth() > 0) {
+            if (!poll(event, postedNanos)) {
+                consumerIdle = true;
+                if (getDepth() == 0 && running) {  // re-checked after raising the flag, so no wake-up is missed
+                    LockSupport.park(this);  // until a post or shutdown unparks it
+                }
+                consumerIdle = false;
+                continue;
+            }
+            long latency = System.nanoTime() - postedNanos[0];
+            DeferredEventListener[] typed = listenersByOrdinal[event.event.ordinal()];
+            if (typed != null) {
+                for (DeferredEventListener listener : typed) {
+                    try {
+                        listener.notify(event);
+                    } catch (RuntimeException ex) {
+                        logger.error("async event listener exception: ", ex);
+                    }
+                }
+            }
+            event.clear();
+            lastLatencyNanos = latency;
+            if (latency > maxLatencyNanos) {
+                maxLatencyNanos = latency;
+            }
+            totalLatencyNanos += latency;  // only the consumer writes these
+            delivered++;
+        }
+    }
+
+    /**
+     * Stops the lane's thread after it has delivered the events already queued.
+     * @param timeoutMillis longest to wait for that
+     */
+    public void shutdown(long timeoutMillis) throws InterruptedException {
+        running = false;
+        if (started.get()) {
+            LockSupport.unpark(consumer);
+            consumer.join(timeoutMillis);
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * @return listeners subscribed, counted once per type subscribed to
+     */
+    public int getListenerCount() {
+        int count = 0;
+        for (DeferredEventListener[] typed : listeners.values()) {
+            count += typed.length;
+        }
+        return count;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return policy;
+    }
+
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    /**
+     * @return events waiting for the consumer
+     */
+    public long getDepth() {
+        return Math.max(0, enqueuePosition.get() - dequeuePosition.get());
+    }
+
+    public long getMaxDepth() {
+        return maxDepth;
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public long getDeliveredCount() {
+        return delivered;
+    }
+
+    /**
+     * @return time from posting to delivery of the last event delivered, in nanoseconds
+     */
+    public long getLastLatencyNanos() {
+        return lastLatencyNanos;
+    }
+
+    public long getMaxLatencyNanos() {
+        return maxLatencyNanos;
+    }
+
+    public long getMeanLatencyNanos() {
+        long count = delivered;
+        return count == 0 ? 0 : totalLatencyNanos / count;
+    }
+}
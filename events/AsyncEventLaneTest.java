@@ -0,0 +1,139 @@
+package io.github.emergentorganization.emergent2dcore.events;
+
+import io.github.emergentorganization.cellrpg.events.GameEvent;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ */
+public class AsyncEventLaneTest {
+
+    @Test
+    public void testDeliversEveryEventFromSeveralProducers() throws InterruptedException {
+        final AsyncEventLane lane = new AsyncEventLane(new EventDispatcher(), 64,
+                AsyncEventLane.OverflowPolicy.BLOCK);
+        final int producers = 4, perProducer = 20000;
+        final AtomicLong sum = new AtomicLong();
+        final CountDownLatch received = new CountDownLatch(producers * perProducer);
+        lane.subscribe(GameEvent.COLLISION_BULLET, new DeferredEventListener() {
+            @Override
+            public void notify(DeferredEvent event) {
+                sum.addAndGet(event.entityId);
+                received.countDown();
+            }
+        });
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            threads[p] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < perProducer; i++) {
+                        lane.post(GameEvent.COLLISION_BULLET, i);
+                    }
+                }
+            });
+            threads[p].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assert received.await(10, TimeUnit.SECONDS);
+        assert sum.get() == (long) producers * perProducer * (perProducer - 1) / 2;
+        assert lane.getDroppedCount() == 0;
+        assert lane.getMaxDepth() <= lane.getCapacity();
+        lane.shutdown(1000);
+    }
+
+    private static AsyncEventLane blockedLane(AsyncEventLane.OverflowPolicy policy, final CountDownLatch release,
+                                              final AtomicLong lastDelivered) {
+        AsyncEventLane lane = new AsyncEventLane(new EventDispatcher(), 4, policy);
+        lane.subscribe(GameEvent.PLAYER_SHOOT, new DeferredEventListener() {
+            @Override
+            public void notify(DeferredEvent event) {
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                lastDelivered.set(event.entityId);
+            }
+        });
+        return lane;
+    }
+
+    @Test
+    public void testCountAndDropKeepsOldest() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicLong last = new AtomicLong();
+        AsyncEventLane lane = blockedLane(AsyncEventLane.OverflowPolicy.COUNT_AND_DROP, release, last);
+        lane.post(GameEvent.PLAYER_SHOOT, 0);
+        while (lane.getDepth() > 0) {  // consumer holds event 0
+            Thread.yield();
+        }
+        for (int i = 1; i <= 10; i++) {
+            lane.post(GameEvent.PLAYER_SHOOT, i);
+        }
+        assert lane.getDroppedCount() == 6;
+        release.countDown();
+        lane.shutdown(1000);
+        assert last.get() == 4;
+        assert lane.getDeliveredCount() == 5;
+    }
+
+    @Test
+    public void testDropOldestKeepsNewest() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicLong last = new AtomicLong();
+        AsyncEventLane lane = blockedLane(AsyncEventLane.OverflowPolicy.DROP_OLDEST, release, last);
+        lane.post(GameEvent.PLAYER_SHOOT, 0);
+        while (lane.getDepth() > 0) {
+            Thread.yield();
+        }
+        for (int i = 1; i <= 10; i++) {
+            lane.post(GameEvent.PLAYER_SHOOT, i);
+        }
+        assert lane.getDroppedCount() == 6;
+        release.countDown();
+        lane.shutdown(1000);
+        assert last.get() == 10;
+        assert lane.getMaxLatencyNanos() > 0;
+    }
+
+    @Test
+    public void testPostAfterShutdownIsDropped() throws InterruptedException {
+        AsyncEventLane lane = new AsyncEventLane(new EventDispatcher());
+        lane.shutdown(1000);  // never posted to, so there is no thread to stop
+        assert !lane.isRunning();
+        assert !lane.post(GameEvent.PLAYER_SHOOT, 0);
+        assert lane.getDroppedCount() == 1;
+    }
+
+    @Test
+    public void testDispatcherDisposeReplacesLane() {
+        EventDispatcher dispatcher = new EventDispatcher();
+        dispatcher.configureAsyncLane(16, AsyncEventLane.OverflowPolicy.DROP_OLDEST);
+        AsyncEventLane lane = dispatcher.getAsyncLane();
+        assert lane.getCapacity() == 16;
+        assert lane.getOverflowPolicy() == AsyncEventLane.OverflowPolicy.DROP_OLDEST;
+        lane.subscribe(GameEvent.PLAYER_SHOOT, new DeferredEventListener() {
+            @Override
+            public void notify(DeferredEvent event) {
+            }
+        });
+        assert dispatcher.getListenerCount(GameEvent.PLAYER_SHOOT) == 1;
+        dispatcher.dispose();
+        assert !lane.isRunning();
+        assert dispatcher.getListenerCount(GameEvent.PLAYER_SHOOT) == 0;
+        assert dispatcher.getAsyncLane() != lane;
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testConfigureAfterUseFails() {
+        EventDispatcher dispatcher = new EventDispatcher();
+        dispatcher.getAsyncLane();
+        dispatcher.configureAsyncLane(16, AsyncEventLane.OverflowPolicy.BLOCK);
+    }
+}
@@ -0,0 +1,36 @@
+package io.github.emergentorganization.emergent2dcore.events;
+
+import io.github.emergentorganization.cellrpg.events.EntityEvent;
+import io.github.emergentorganization.cellrpg.events.GameEvent;
+
+/**
+ * An event waiting in an EventQueue. Instances are owned and reused by the queue:
+ * read them inside DeferredEventListener.notify() and do not keep them.
+ */
+public class DeferredEvent {
+    public GameEvent event;
+    /**
+     * entity the event is about, or -1 if unknown (e.g. queued from an EntityEvent)
+     **/
+    public int entityId;
+    /**
+     * number of events of this type merged into this one; 1 unless the type is coalesced
+     **/
+    public int count;
+    /**
+     * the EntityEvent queued, or the first of the merged ones; null for events posted by type
+     **/
+    public EntityEvent source;
+
+    void set(GameEvent event, int entityId, EntityEvent source) {
+        this.event = event;
+        this.entityId = entityId;
+        this.source = source;
+        this.count = 1;
+    }
+
+    void clear() {
+        event = null;
+        source = null;
+    }
+}
@@ -0,0 +1,8 @@
+package io.github.emergentorganization.emergent2dcore.events;
+
+public interface DeferredEventListener {
+
+    void notify(DeferredEvent event);
+    // notifies listening object of a queued event, when the queue is flushed
+
+}
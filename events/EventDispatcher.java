@@ -0,0 +1,179 @@
+package io.github.emergentorganization.emergent2dcore.events;
+
+import io.github.emergentorganization.cellrpg.events.EntityEvent;
+import io.github.emergentorganization.cellrpg.events.GameEvent;
+import io.github.emergentorganization.cellrpg.managers.EventManager;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Delivers events only to the listeners subscribed to their GameEvent type, plus any catch-all listeners,
+ * so an event costs as many calls as there are listeners interested in it.
+ * Registers itself as a single listener with an EventManager and fans its events out from there;
+ * use of(eventManager) to share one dispatcher per manager.
+ *
+ * Listener lists are copied on write: subscribing or unsubscribing, also from within a listener,
+ * never disturbs a dispatch in progress, and takes effect from the next event on.
+ */
+public class EventDispatcher implements EventListener {
+    private static final EventListener[] NO_LISTENERS = new EventListener[0];
+    private static final Map<EventManager, EventDispatcher> dispatchers = new WeakHashMap<EventManager, EventDispatcher>();
+
+    private final EnumMap<GameEvent, EventListener[]> listeners = new EnumMap<GameEvent, EventListener[]>(GameEvent.class);
+    private EventListener[] catchAll = NO_LISTENERS;
+    private final long[] dispatched = new long[GameEvent.values().length];  // by GameEvent ordinal
+    private EventQueue queue;
+    private AsyncEventLane asyncLane;
+    private int asyncLaneCapacity = AsyncEventLane.DEFAULT_CAPACITY;
+    private AsyncEventLane.OverflowPolicy asyncLanePolicy = AsyncEventLane.OverflowPolicy.COUNT_AND_DROP;
+
+    /**
+     * @return the dispatcher fed by the given manager, created and registered on first use
+     */
+    public static EventDispatcher of(EventManager eventManager) {
+        synchronized (dispatchers) {
+            EventDispatcher dispatcher = dispatchers.get(eventManager);
+            if (dispatcher == null) {
+                dispatcher = new EventDispatcher();
+                eventManager.addListener(dispatcher);
+                dispatchers.put(eventManager, dispatcher);
+            }
+            return dispatcher;
+        }
+    }
+
+    /**
+     * @return queue for listeners wanting this dispatcher's events delivered later, created on first use
+     */
+    public EventQueue getQueue() {
+        if (queue == null) {
+            queue = new EventQueue(this);
+        }
+        return queue;
+    }
+
+    /**
+     * @return lane delivering this dispatcher's events on a thread of its own, created on first use
+     *         (again after dispose()) as configured by configureAsyncLane()
+     */
+    public AsyncEventLane getAsyncLane() {
+        if (asyncLane == null) {
+            asyncLane = new AsyncEventLane(this, asyncLaneCapacity, asyncLanePolicy);
+        }
+        return asyncLane;
+    }
+
+    /**
+     * Sets up the lane returned by getAsyncLane(). By default it queues 1024 events and drops new ones beyond that,
+     * so consumers falling behind never hold up the simulation.
+     * @throws IllegalStateException if the lane is in use already
+     */
+    public void configureAsyncLane(int capacity, AsyncEventLane.OverflowPolicy policy) {
+        if (asyncLane != null) {
+            throw new IllegalStateException("async lane already created; configure it before first use");
+        }
+        asyncLaneCapacity = capacity;
+        asyncLanePolicy = policy;
+    }
+
+    /**
+     * Stops the async lane's thread, after it has delivered what was queued. Its listeners are dropped.
+     */
+    public void dispose() {
+        if (asyncLane != null) {
+            AsyncEventLane lane = asyncLane;
+            asyncLane = null;
+            try {
+                lane.shutdown(1000);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            for (GameEvent type : GameEvent.values()) {
+                unsubscribe(type, lane);
+            }
+        }
+    }
+
+    public void subscribe(GameEvent type, EventListener listener) {
+        listeners.put(type, added(get(type), listener));
+    }
+
+    public void unsubscribe(GameEvent type, EventListener listener) {
+        EventListener[] remaining = removed(get(type), listener);
+        if (remaining.length == 0) {
+            listeners.remove(type);
+        } else {
+            listeners.put(type, remaining);
+        }
+    }
+
+    /**
+     * Subscribes the listener to events of every type.
+     */
+    public void subscribeAll(EventListener listener) {
+        catchAll = added(catchAll, listener);
+    }
+
+    public void unsubscribeAll(EventListener listener) {
+        catchAll = removed(catchAll, listener);
+    }
+
+    @Override
+    public void notify(EntityEvent event) {
+        dispatched[event.event.ordinal()]++;
+        EventListener[] typed = listeners.get(event.event);
+        if (typed != null) {
+            for (EventListener listener : typed) {
+                listener.notify(event);
+            }
+        }
+        EventListener[] all = catchAll;
+        for (EventListener listener : all) {
+            listener.notify(event);
+        }
+    }
+
+    /**
+     * @return events of the type dispatched so far
+     */
+    public long getDispatchCount(GameEvent type) {
+        return dispatched[type.ordinal()];
+    }
+
+    public void resetDispatchCounts() {
+        Arrays.fill(dispatched, 0);
+    }
+
+    /**
+     * @return listeners receiving events of the type, catch-all listeners included
+     */
+    public int getListenerCount(GameEvent type) {
+        return get(type).length + catchAll.length;
+    }
+
+    private EventListener[] get(GameEvent type) {
+        EventListener[] typed = listeners.get(type);
+        return typed == null ? NO_LISTENERS : typed;
+    }
+
+    private static EventListener[] added(EventListener[] listeners, EventListener listener) {
+        EventListener[] copy = Arrays.copyOf(listeners, listeners.length + 1);
+        copy[listeners.length] = listener;
+        return copy;
+    }
+
+    private static EventListener[] removed(EventListener[] listeners, EventListener listener) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                EventListener[] copy = new EventListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, copy, 0, i);
+                System.arraycopy(listeners, i + 1, copy, i, copy.length - i);
+                return copy;
+            }
+        }
+        return listeners;
+    }
+}
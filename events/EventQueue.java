@@ -0,0 +1,189 @@
+package io.github.emergentorganization.emergent2dcore.events;
+
+import io.github.emergentorganization.cellrpg.events.EntityEvent;
+import io.github.emergentorganization.cellrpg.events.GameEvent;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+
+/**
+ * Holds events until flush() delivers them, in the order they were posted, to the DeferredEventListeners
+ * subscribed to their type. Listeners thus run at a known point between system updates
+ * (see EventQueueSystem) instead of in the middle of whichever system raised the event.
+ *
+ * Queued events live in preallocated DeferredEvent objects that are reused after delivery.
+ * Events posted while flushing are delivered by the next flush.
+ * Types set to coalesce are merged while queued: a second event of the type only raises the count
+ * of the first, so forty bullet collisions in a tick reach listeners as one event with a count of forty.
+ */
+public class EventQueue implements EventListener {
+    private static final DeferredEventListener[] NO_LISTENERS = new DeferredEventListener[0];
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final EventDispatcher dispatcher;
+    private final EnumMap<GameEvent, DeferredEventListener[]> listeners =
+            new EnumMap<GameEvent, DeferredEventListener[]>(GameEvent.class);
+    private final boolean[] coalesce = new boolean[GameEvent.values().length];  // by GameEvent ordinal
+    private final int[] queuedIndex = new int[GameEvent.values().length];  // where the type is queued, for merging
+
+    private DeferredEvent[] queued = allocate(INITIAL_CAPACITY);
+    private DeferredEvent[] delivering = allocate(INITIAL_CAPACITY);
+    private int queuedCount = 0;
+    private boolean flushing = false;
+
+    private long posted = 0;
+    private long coalesced = 0;
+    private long delivered = 0;
+
+    /**
+     * @param dispatcher source of the EntityEvents of the types subscribed to here
+     */
+    public EventQueue(EventDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+        Arrays.fill(queuedIndex, -1);
+    }
+
+    /**
+     * Queues the dispatcher's events of the type from now on, for delivery to the listener on flush.
+     */
+    public void subscribe(GameEvent type, DeferredEventListener listener) {
+        DeferredEventListener[] typed = listeners.get(type);
+        if (typed == null) {
+            typed = NO_LISTENERS;
+            dispatcher.subscribe(type, this);
+        }
+        DeferredEventListener[] copy = Arrays.copyOf(typed, typed.length + 1);
+        copy[typed.length] = listener;
+        listeners.put(type, copy);
+    }
+
+    public void unsubscribe(GameEvent type, DeferredEventListener listener) {
+        DeferredEventListener[] typed = listeners.get(type);
+        if (typed == null) {
+            return;
+        }
+        for (int i = 0; i < typed.length; i++) {
+            if (typed[i] == listener) {
+                if (typed.length == 1) {
+                    listeners.remove(type);
+                    dispatcher.unsubscribe(type, this);
+                } else {
+                    DeferredEventListener[] copy = new DeferredEventListener[typed.length - 1];
+                    System.arraycopy(typed, 0, copy, 0, i);
+                    System.arraycopy(typed, i + 1, copy, i, copy.length - i);
+                    listeners.put(type, copy);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * @param coalesce true to merge events of the type queued between two flushes into one
+     */
+    public void setCoalescing(GameEvent type, boolean coalesce) {
+        this.coalesce[type.ordinal()] = coalesce;
+    }
+
+    /**
+     * Queues an event received from the dispatcher.
+     */
+    @Override
+    public void notify(EntityEvent event) {
+        post(event.event, -1, event);
+    }
+
+    /**
+     * Queues an event without an EntityEvent having to be created for it.
+     */
+    public void post(GameEvent type, int entityId) {
+        post(type, entityId, null);
+    }
+
+    private void post(GameEvent type, int entityId, EntityEvent source) {
+        posted++;
+        int ordinal = type.ordinal();
+        if (coalesce[ordinal] && queuedIndex[ordinal] != -1) {
+            DeferredEvent merged = queued[queuedIndex[ordinal]];
+            merged.count++;
+            if (merged.entityId != entityId) {
+                merged.entityId = -1;  // about several entities
+            }
+            coalesced++;
+            return;
+        }
+        if (queuedCount == queued.length) {
+            queued = grow(queued);
+        }
+        queued[queuedCount].set(type, entityId, source);
+        queuedIndex[ordinal] = queuedCount;
+        queuedCount++;
+    }
+
+    /**
+     * Delivers the queued events. Call it between system updates, from the thread posting events.
+     */
+    public void flush() {
+        if (flushing || queuedCount == 0) {
+            return;
+        }
+        flushing = true;
+        // swap, so events posted by listeners queue up for the next flush
+        DeferredEvent[] events = queued;
+        int count = queuedCount;
+        queued = delivering.length >= events.length ? delivering : allocate(events.length);
+        delivering = events;
+        queuedCount = 0;
+        Arrays.fill(queuedIndex, -1);
+        try {
+            for (int i = 0; i < count; i++) {
+                DeferredEvent event = events[i];
+                DeferredEventListener[] typed = listeners.get(event.event);
+                if (typed != null) {
+                    for (DeferredEventListener listener : typed) {
+                        listener.notify(event);
+                    }
+                }
+                delivered++;
+                event.clear();
+            }
+        } finally {
+            flushing = false;
+        }
+    }
+
+    public int getQueuedCount() {
+        return queuedCount;
+    }
+
+    public long getPostedCount() {
+        return posted;
+    }
+
+    /**
+     * @return events merged into an already queued one
+     */
+    public long getCoalescedCount() {
+        return coalesced;
+    }
+
+    public long getDeliveredCount() {
+        return delivered;
+    }
+
+    private static DeferredEvent[] allocate(int capacity) {
+        DeferredEvent[] events = new DeferredEvent[capacity];
+        for (int i = 0; i < capacity; i++) {
+            events[i] = new DeferredEvent();
+        }
+        return events;
+    }
+
+    private static DeferredEvent[] grow(DeferredEvent[] events) {
+        DeferredEvent[] grown = Arrays.copyOf(events, events.length * 2);
+        for (int i = events.length; i < grown.length; i++) {
+            grown[i] = new DeferredEvent();
+        }
+        return grown;
+    }
+}
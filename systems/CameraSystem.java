@@ -6,8 +6,6 @@ import com.artemis.annotations.Profile;
 import com.artemis.annotations.Wire;
 import com.artemis.systems.IteratingSystem;
 import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.Preferences;
-import com.badlogic.gdx.graphics.Camera;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.math.Vector2;
 import io.github.emergentorganization.cellrpg.events.EntityEvent;
@@ -18,7 +16,17 @@ import io.github.emergentorganization.emergent2dcore.components.CameraFollow;
 import io.github.emergentorganization.emergent2dcore.components.Position;
 import io.github.emergentorganization.cellrpg.core.entityfactory.EntityFactory;
 import io.github.emergentorganization.emergent2dcore.components.Velocity;
+import io.github.emergentorganization.emergent2dcore.components.WorldBounds;
+import io.github.emergentorganization.emergent2dcore.events.DeferredEvent;
+import io.github.emergentorganization.emergent2dcore.events.DeferredEventListener;
+import io.github.emergentorganization.emergent2dcore.events.EventDispatcher;
 import io.github.emergentorganization.emergent2dcore.events.EventListener;
+import io.github.emergentorganization.emergent2dcore.systems.camera.CameraFollowStrategy;
+import io.github.emergentorganization.emergent2dcore.systems.camera.CameraSettings;
+import io.github.emergentorganization.emergent2dcore.systems.camera.DeadzoneFollow;
+import io.github.emergentorganization.emergent2dcore.systems.camera.LeadingFollow;
+import io.github.emergentorganization.emergent2dcore.systems.camera.SimpleFollow;
+import io.github.emergentorganization.emergent2dcore.systems.camera.SmoothedFollow;
 import io.github.emergentorganization.cellrpg.events.GameEvent;
 import io.github.emergentorganization.cellrpg.managers.EventManager;
 import org.apache.logging.log4j.LogManager;
@@ -27,17 +35,29 @@ import org.apache.logging.log4j.Logger;
 
 @Wire
 @Profile(using=EmergentProfiler.class, enabled=true)
-public class CameraSystem extends IteratingSystem {
+public class CameraSystem extends IteratingSystem implements FrameSystem {
     private final Logger logger = LogManager.getLogger(getClass());
 
     private ComponentMapper<Position> pm;
     private ComponentMapper<Bounds> bm;
     private ComponentMapper<Velocity> velocity_m;
+    private ComponentMapper<WorldBounds> wbm;
     private EventManager eventMan;
+    @Wire(failOnNull = false)
+    private EventQueueSystem eventQueueSystem;
+    @Wire(failOnNull = false)
+    private TransformHistorySystem transformHistory;  // the camera follows where the entity is drawn; optional
 
     private OrthographicCamera gameCamera;
     private boolean shouldFollow = true;
-    private long lastUpdate;
+
+    private final CameraSettings settings = new CameraSettings();
+    // indexed by CameraSettings.followMethod
+    private final CameraFollowStrategy[] strategies = {
+            new SimpleFollow(), new LeadingFollow(), new DeadzoneFollow(), new SmoothedFollow()
+    };
+    private CameraFollowStrategy followStrategy = strategies[CameraSettings.SIMPLE];
+    private final Vector2 center = new Vector2();
 
     public CameraSystem() {
         super(Aspect.all(CameraFollow.class, Position.class, Bounds.class, Velocity.class));
@@ -50,17 +70,47 @@ public class CameraSystem extends IteratingSystem {
     @Override
     public void initialize() {
         super.initialize();
-        eventMan.addListener(new EventListener() {
-            @Override
-            public void notify(EntityEvent event) {
-                switch (event.event) {
-                    case PLAYER_HIT:
-                        camShake();
-                        break;
+        if (eventQueueSystem != null) {
+            // shake between system updates rather than in the middle of whichever system hit the player
+            eventQueueSystem.getQueue().subscribe(GameEvent.PLAYER_HIT, new DeferredEventListener() {
+                @Override
+                public void notify(DeferredEvent event) {
+                    camShake();
                 }
-            }
-        });
-        lastUpdate = System.currentTimeMillis();
+            });
+        } else {
+            EventDispatcher.of(eventMan).subscribe(GameEvent.PLAYER_HIT, new EventListener() {
+                @Override
+                public void notify(EntityEvent event) {
+                    camShake();
+                }
+            });
+        }
+        refreshSettings();
+    }
+
+    /**
+     * Re-reads the camera preferences. They are cached, so call this after changing them.
+     */
+    public void refreshSettings() {
+        settings.load(GameSettings.getPreferences());
+        int method = settings.followMethod;
+        if (method < 0 || method >= strategies.length) {
+            logger.warn("unknown camera follow method " + method + ", using simple follow");
+            method = CameraSettings.SIMPLE;
+        }
+        followStrategy = strategies[method];
+    }
+
+    /**
+     * Overrides the follow strategy chosen by the settings until the next refreshSettings().
+     */
+    public void setFollowStrategy(CameraFollowStrategy strategy) {
+        followStrategy = strategy;
+    }
+
+    public CameraSettings getSettings() {
+        return settings;
     }
 
     private void camShake() {
@@ -70,7 +120,7 @@ public class CameraSystem extends IteratingSystem {
 //        shouldFollow = !shouldFollow;  // this was just temporary to test that it works
     }
 
-    public Camera getGameCamera() {
+    public OrthographicCamera getGameCamera() {
         return gameCamera;
     }
 
@@ -79,58 +129,21 @@ public class CameraSystem extends IteratingSystem {
     }
 
     private void camFollow(int followEntity){
-        int camfollowMethod = GameSettings.getPreferences().getInteger(GameSettings.KEY_CAM_FOLLOW_METHOD);
-        // TODO: switch-case to choose method
-        camFollow_simple(followEntity);
-        lastUpdate = System.currentTimeMillis();
-    }
-
-    private void camFollow_simple(int followEntity){
-        // stays exactly above the given entity. no frills, max performance.
-        Position pc = pm.get(followEntity);
-        Bounds b = bm.get(followEntity);
-        Velocity velocity = velocity_m.get(followEntity);
-
-        Vector2 pos = pc.getCenter(b,0);
-        gameCamera.position.set( pos, 0);
-    }
-
-    private void camFollow_leading(int followEntity) {
-        // follows given entity, attempts to lead the entity in the direction of travel
         if (shouldFollow) {
-            Position pc = pm.get(followEntity);
-            Bounds b = bm.get(followEntity);
-            Velocity velocity = velocity_m.get(followEntity);
-
-            final long deltaTime = System.currentTimeMillis() - lastUpdate;
-
-            // get camera settings:
-            Preferences prefs = GameSettings.getPreferences();
-            final float EDGE_MARGIN = prefs.getFloat(GameSettings.KEY_CAM_EDGE_MARGIN, 10)
-                    *EntityFactory.SCALE_WORLD_TO_BOX;
-            final float CLOSE_ENOUGH = prefs.getFloat(GameSettings.KEY_CAM_NEARNESS_CUTOFF, 4)
-                    *EntityFactory.SCALE_WORLD_TO_BOX;
-            final float CAMERA_LEAD = prefs.getFloat(GameSettings.KEY_CAM_LEAD, 20)
-                    *EntityFactory.SCALE_WORLD_TO_BOX;
-
-
-            Vector2 pos = pc.getCenter(b,0);
-            Vector2 cameraLoc = new Vector2(gameCamera.position.x, gameCamera.position.y);
-
-            Vector2 offset = new Vector2(pos);
-            offset.sub(gameCamera.position.x, gameCamera.position.y);
-
-            offset.add(velocity.velocity.nor().scl(CAMERA_LEAD));
-
-            if (Math.abs(offset.x) > CLOSE_ENOUGH || Math.abs(offset.y) > CLOSE_ENOUGH) {
-                // compute camera positioning:
-                final float MAX_OFFSET = Math.min(gameCamera.viewportWidth, gameCamera.viewportHeight)/2-EDGE_MARGIN;  // max player-camera dist
-                final float PROPORTIONAL_GAIN = deltaTime * velocity.velocity.len() / MAX_OFFSET;
-
-                cameraLoc.add(offset.scl(PROPORTIONAL_GAIN));
-                gameCamera.position.set(cameraLoc, 0);
-//                logger.info("new camera pos:" + cameraLoc);
+            Position position = pm.get(followEntity);
+            if (wbm.has(followEntity)) {
+                center.set(wbm.get(followEntity).center);
+            } else {
+                position.getCenter(bm.get(followEntity), 0, center);
+            }
+            if (transformHistory != null) {
+                // shifted as RenderSystem shifts the sprite between ticks, so the two do not jitter apart
+                float x = position.position.x, y = position.position.y;
+                center.add(transformHistory.interpolateX(followEntity, x) - x,
+                        transformHistory.interpolateY(followEntity, y) - y);
             }
+            followStrategy.follow(gameCamera, center.x, center.y, velocity_m.get(followEntity).velocity,
+                    settings, world.getDelta());
         }
     }
 
@@ -0,0 +1,50 @@
+package io.github.emergentorganization.emergent2dcore.systems;
+
+import com.artemis.Aspect;
+import com.artemis.ComponentMapper;
+import com.artemis.annotations.Profile;
+import com.artemis.annotations.Wire;
+import com.artemis.systems.IteratingSystem;
+import io.github.emergentorganization.cellrpg.components.EquipmentList;
+import io.github.emergentorganization.cellrpg.tools.profiling.EmergentProfiler;
+import io.github.emergentorganization.emergent2dcore.components.Bounds;
+import io.github.emergentorganization.emergent2dcore.components.Position;
+import io.github.emergentorganization.emergent2dcore.components.Velocity;
+
+/**
+ * Keeps equipment with the entity carrying it, and recharges it.
+ * Add it after the movement systems so equipment follows this frame's position.
+ * Equipment entities given a ParentTransform are kept in place by the TransformHierarchySystem instead,
+ * which skips those whose carrier has not moved.
+ */
+@Wire
+@Profile(using=EmergentProfiler.class, enabled=true)
+public class EquipmentSystem extends IteratingSystem {
+
+    private ComponentMapper<Position> posMapper;
+    private ComponentMapper<Bounds> boundsMapper;
+    private ComponentMapper<EquipmentList> equipMapper;
+
+    private int processed;  // entities whose equipment was updated in the last frame
+
+    public EquipmentSystem() {
+        super(Aspect.all(Position.class, Velocity.class, EquipmentList.class));
+    }
+
+    @Override
+    protected void begin() {
+        processed = 0;
+    }
+
+    @Override
+    protected void process(int entityId) {
+        EquipmentList equipmentList = equipMapper.get(entityId);
+        equipmentList.moveEquipment(boundsMapper, posMapper);
+        equipmentList.rechargeEquipment(); // TODO: move this to EnergySystem
+        processed++;
+    }
+
+    public int getProcessedCount() {
+        return processed;
+    }
+}
@@ -0,0 +1,31 @@
+package io.github.emergentorganization.emergent2dcore.systems;
+
+import com.artemis.BaseSystem;
+import com.artemis.annotations.Profile;
+import com.artemis.annotations.Wire;
+import io.github.emergentorganization.cellrpg.managers.EventManager;
+import io.github.emergentorganization.cellrpg.tools.profiling.EmergentProfiler;
+import io.github.emergentorganization.emergent2dcore.events.EventDispatcher;
+import io.github.emergentorganization.emergent2dcore.events.EventQueue;
+
+/**
+ * Delivers the events queued for deferred listeners (see EventQueue) once per tick,
+ * at this system's place in the system order. Systems find it wired to decide whether to subscribe deferred.
+ */
+@Wire
+@Profile(using=EmergentProfiler.class, enabled=true)
+public class EventQueueSystem extends BaseSystem {
+    private EventManager eventMan;
+
+    @Override
+    protected void processSystem() {
+        getQueue().flush();
+    }
+
+    /**
+     * @return the queue flushed by this system; usable from other systems' initialize()
+     */
+    public EventQueue getQueue() {
+        return EventDispatcher.of(eventMan).getQueue();
+    }
+}
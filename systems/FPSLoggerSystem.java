@@ -14,7 +14,7 @@ import java.util.Date;
 /**
  * logs FPS to file for later analyss. Based on libGDX's FPSLogger.
  */
-public class FPSLoggerSystem extends BaseSystem {
+public class FPSLoggerSystem extends BaseSystem implements FrameSystem {
     private static final Logger logger = LogManager.getLogger(FPSLoggerSystem.class);
 
     private final String LOGFILE = "FPSLog.csv";
@@ -0,0 +1,140 @@
+package io.github.emergentorganization.emergent2dcore.systems;
+
+import com.artemis.BaseSystem;
+import com.artemis.SystemInvocationStrategy;
+import com.artemis.utils.Bag;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Runs the simulation at a fixed tick rate, independent of the frame rate.
+ * Each world.process() accumulates the frame's delta (world.setDelta as usual) and runs as many ticks as fit,
+ * every non-FrameSystem with world.getDelta() equal to the tick length. FrameSystems then run once with
+ * the frame's delta. A frame runs at most maxTicksPerFrame ticks; time beyond that is dropped, so a slow machine
+ * runs the simulation slower instead of falling further behind every frame.
+ *
+ * The part of a tick left over is exposed as an interpolation factor, which the TransformHistorySystem
+ * passes on to the RenderSystem so that drawn positions move smoothly between ticks.
+ */
+public class FixedStepInvocationStrategy extends SystemInvocationStrategy {
+    private final Logger logger = LogManager.getLogger(getClass());
+
+    public static final int DEFAULT_MAX_TICKS_PER_FRAME = 5;
+
+    private float tickLength;
+    private int maxTicksPerFrame = DEFAULT_MAX_TICKS_PER_FRAME;
+    private float accumulator = 0;
+    private float alpha = 1;
+    private int ticksLastFrame;
+    private long droppedTicks = 0;
+    private TransformHistorySystem history;
+    private SystemTimings timings;
+    private boolean initialized = false;
+
+    /**
+     * @param tickRate simulation ticks per second, e.g. 30
+     */
+    public FixedStepInvocationStrategy(float tickRate) {
+        setTickRate(tickRate);
+    }
+
+    @Override
+    protected void process(Bag<BaseSystem> systems) {
+        if (!initialized) {
+            history = findHistory(systems);
+            initialized = true;
+        }
+        final float frameDelta = world.getDelta();
+        accumulator += frameDelta;
+
+        ticksLastFrame = 0;
+        while (accumulator >= tickLength && ticksLastFrame < maxTicksPerFrame) {
+            world.setDelta(tickLength);
+            processSystems(systems, false);
+            accumulator -= tickLength;
+            ticksLastFrame++;
+        }
+        if (accumulator >= tickLength) {
+            int dropped = (int) (accumulator / tickLength);
+            droppedTicks += dropped;
+            accumulator -= dropped * tickLength;
+            logger.debug("simulation behind; dropped " + dropped + " ticks");
+        }
+
+        alpha = accumulator / tickLength;
+        if (history != null) {
+            history.setAlpha(alpha);
+        }
+        world.setDelta(frameDelta);
+        processSystems(systems, true);
+    }
+
+    private void processSystems(Bag<BaseSystem> systems, boolean frameSystems) {
+        Object[] data = systems.getData();
+        for (int i = 0, s = systems.size(); i < s; i++) {
+            BaseSystem system = (BaseSystem) data[i];
+            if ((system instanceof FrameSystem) == frameSystems) {
+                if (timings != null) {
+                    long start = System.nanoTime();
+                    system.process();
+                    timings.add(systems, i, System.nanoTime() - start);
+                } else {
+                    system.process();
+                }
+                updateEntityStates();
+            }
+        }
+    }
+
+    private static TransformHistorySystem findHistory(Bag<BaseSystem> systems) {
+        for (int i = 0, s = systems.size(); i < s; i++) {
+            if (systems.get(i) instanceof TransformHistorySystem) {
+                return (TransformHistorySystem) systems.get(i);
+            }
+        }
+        return null;
+    }
+
+    public void setTickRate(float tickRate) {
+        if (tickRate <= 0) {
+            throw new IllegalArgumentException("tick rate must be positive: " + tickRate);
+        }
+        tickLength = 1f / tickRate;
+    }
+
+    public float getTickLength() {
+        return tickLength;
+    }
+
+    public void setMaxTicksPerFrame(int maxTicksPerFrame) {
+        if (maxTicksPerFrame < 1) {
+            throw new IllegalArgumentException("max ticks per frame must be at least 1: " + maxTicksPerFrame);
+        }
+        this.maxTicksPerFrame = maxTicksPerFrame;
+    }
+
+    /**
+     * @param timings accumulates the time spent in each system, or null to stop timing
+     */
+    public void setTimings(SystemTimings timings) {
+        this.timings = timings;
+    }
+
+    /**
+     * @return fraction of a tick elapsed since the last tick, in [0, 1)
+     */
+    public float getAlpha() {
+        return alpha;
+    }
+
+    public int getTicksLastFrame() {
+        return ticksLastFrame;
+    }
+
+    /**
+     * @return ticks skipped so far because frames took longer than maxTicksPerFrame ticks
+     */
+    public long getDroppedTicks() {
+        return droppedTicks;
+    }
+}
@@ -0,0 +1,9 @@
+package io.github.emergentorganization.emergent2dcore.systems;
+
+/**
+ * Marks a system which runs once per rendered frame, with the frame's delta, rather than once per
+ * simulation tick. Only makes a difference under FixedStepInvocationStrategy; rendering, camera, input polling
+ * and UI systems implement it.
+ */
+public interface FrameSystem {
+}
@@ -0,0 +1,77 @@
+package io.github.emergentorganization.emergent2dcore.systems;
+
+import com.artemis.Aspect;
+import com.artemis.ComponentMapper;
+import com.artemis.annotations.Profile;
+import com.artemis.annotations.Wire;
+import com.artemis.systems.IteratingSystem;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import io.github.emergentorganization.cellrpg.managers.PhysicsSystem;
+import io.github.emergentorganization.cellrpg.tools.profiling.EmergentProfiler;
+import io.github.emergentorganization.emergent2dcore.components.InputComponent;
+import io.github.emergentorganization.emergent2dcore.components.Lifecycle;
+import io.github.emergentorganization.emergent2dcore.components.PhysicsBody;
+import io.github.emergentorganization.emergent2dcore.components.Position;
+import io.github.emergentorganization.emergent2dcore.components.Rotation;
+import io.github.emergentorganization.emergent2dcore.components.Velocity;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Controls physics bodies by input: every frame the body's velocity is replaced by an impulse
+ * in the input direction, and the entity's image is updated from the body.
+ */
+@Wire
+@Profile(using=EmergentProfiler.class, enabled=true)
+public class InputMovementSystem extends IteratingSystem {
+    private final Logger logger = LogManager.getLogger(getClass());
+
+    private ComponentMapper<Position> posMapper;
+    private ComponentMapper<Rotation> rotMapper;
+    private ComponentMapper<Velocity> velMapper;
+    private ComponentMapper<InputComponent> inputMapper;
+    private ComponentMapper<Lifecycle> lifeCycleMapper;
+    private PhysicsSystem physicsSystem;
+
+    private final Vector2 impulse = new Vector2();
+    private int processed;  // entities moved in the last frame
+
+    public InputMovementSystem() {
+        super(Aspect.all(Position.class, Rotation.class, Velocity.class, PhysicsBody.class, InputComponent.class));
+    }
+
+    @Override
+    protected void begin() {
+        processed = 0;
+    }
+
+    @Override
+    protected void process(int entityId) {
+        Body body = physicsSystem.getBody(entityId);
+        if (body == null) {
+            logger.error("ERR: cannot process movement for ent#" + entityId + "; body == null");
+            if (lifeCycleMapper.has(entityId)) {
+                lifeCycleMapper.get(entityId).kill();
+            }
+            return;
+        }
+        InputComponent ic = inputMapper.get(entityId);
+        body.setLinearVelocity(0, 0);
+
+        // accelerate
+        impulse.set(ic.direction).nor().scl(ic.speed);
+        body.applyLinearImpulse(impulse, body.getWorldCenter(), true);
+
+        // update entity
+        posMapper.get(entityId).position.set(body.getPosition());
+        velMapper.get(entityId).velocity.set(body.getLinearVelocity());
+        rotMapper.get(entityId).angle = MathUtils.radiansToDegrees * body.getAngle();
+        processed++;
+    }
+
+    public int getProcessedCount() {
+        return processed;
+    }
+}
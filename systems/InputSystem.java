@@ -5,62 +5,123 @@ import com.artemis.ComponentMapper;
 import com.artemis.annotations.Profile;
 import com.artemis.annotations.Wire;
 import com.artemis.systems.IteratingSystem;
-import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.Gdx;
+import io.github.emergentorganization.cellrpg.tools.GameSettings;
 import io.github.emergentorganization.cellrpg.tools.profiling.EmergentProfiler;
 import io.github.emergentorganization.emergent2dcore.components.Bounds;
 import io.github.emergentorganization.emergent2dcore.components.InputComponent;
 import io.github.emergentorganization.emergent2dcore.components.Position;
+import io.github.emergentorganization.emergent2dcore.components.Rotation;
 import io.github.emergentorganization.emergent2dcore.components.Velocity;
+import io.github.emergentorganization.emergent2dcore.systems.MusicSystem.MusicSystem;
 import io.github.emergentorganization.cellrpg.core.entityfactory.EntityFactory;
 import io.github.emergentorganization.cellrpg.input.InputProcessor;
 import io.github.emergentorganization.cellrpg.input.player.PlayerInputProcessor;
+import io.github.emergentorganization.emergent2dcore.systems.input.InputCapture;
+import io.github.emergentorganization.emergent2dcore.systems.input.InputEventRing;
+import io.github.emergentorganization.emergent2dcore.systems.input.InputRecorder;
+import io.github.emergentorganization.emergent2dcore.systems.input.InputSnapshot;
+import io.github.emergentorganization.emergent2dcore.systems.input.OverlayShapeRenderer;
+import io.github.emergentorganization.emergent2dcore.systems.input.SnapshotPlayerInput;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 
 /**
  * manages all InputProcessors which convert user input into various game happenings (eg player movement)
+ * Raw input events are queued as they arrive and applied once per frame to an InputSnapshot,
+ * which processors read through getInputSnapshot() instead of polling Gdx.input.
  */
 @Wire
 @Profile(using=EmergentProfiler.class, enabled=true)
-public class InputSystem extends IteratingSystem {
+public class InputSystem extends IteratingSystem implements FrameSystem {
+    private final Logger logger = LogManager.getLogger(getClass());
 
     private static final int PLAYER_IN_PROC_INDEX = 0;  // careful not to add a processor and move this!
     private ArrayList<InputProcessor> processors;
     private ComponentMapper<InputComponent> im;
     private ComponentMapper<Position> pm;
     private ComponentMapper<Bounds> bm;
+    private ComponentMapper<Rotation> rm;
     private CameraSystem camSys;
+    @Wire(failOnNull = false)
+    private MusicSystem musicSystem;
     @Wire
     private EntityFactory ef;
-    private ShapeRenderer renderer;
+    private OverlayShapeRenderer renderer;  // null without a GL context
+    private boolean debugOverlay;
+
+    private final InputEventRing events = new InputEventRing();
+    private final InputCapture capture = new InputCapture(events);
+    private final InputSnapshot snapshot = new InputSnapshot();
+    private InputRecorder recorder;
+    private SnapshotPlayerInput headlessPlayer;  // stands in for the player processor without a GL context
 
     public InputSystem() {
         super(Aspect.all(InputComponent.class, Velocity.class));
     }
 
+    /**
+     * @return the player's input processor, or null when running without a GL context
+     */
     public PlayerInputProcessor getPlayerInputProcessor() {
+        if (processors.size() <= PLAYER_IN_PROC_INDEX) {
+            return null;
+        }
         return (PlayerInputProcessor) processors.get(PLAYER_IN_PROC_INDEX);
     }
 
     @Override
     protected void initialize() {
         processors = new ArrayList<InputProcessor>();
-        renderer = new ShapeRenderer();
-        renderer.setAutoShapeType(true);
-        processors.add(PLAYER_IN_PROC_INDEX, new PlayerInputProcessor(world, ef, im, pm, bm, renderer));
+        if (Gdx.gl != null) {
+            renderer = new OverlayShapeRenderer();
+            processors.add(PLAYER_IN_PROC_INDEX, new PlayerInputProcessor(world, ef, im, pm, bm, renderer));
+        } else {
+            // replaying headless: no GL context for the renderer the player processor draws with,
+            // and it polls Gdx.input, which receives nothing there, so the player is driven by the snapshot
+            headlessPlayer = new SnapshotPlayerInput(snapshot);
+            logger.info("no GL context; driving the player from the input snapshot");
+        }
+        setDebugOverlay(GameSettings.devMode());
+        capture.install();
     }
 
     @Override
     protected void begin() {
         super.begin();
-        renderer.setProjectionMatrix(camSys.getGameCamera().combined);
-        renderer.begin();
+        capture.ensureInstalled();  // events since a processor replaced ours are lost, so check each frame
+        if (recorder == null) {
+            snapshot.update(events);
+        } else {
+            snapshot.beginFrame();
+            recorder.beginFrame(world.getDelta());
+            while (events.poll()) {
+                recorder.record(events);
+                snapshot.apply(events);
+            }
+            try {
+                recorder.endFrame();
+            } catch (IOException ex) {
+                logger.error("input recording write exception; recording stopped: ", ex);
+                stopRecording();
+            }
+        }
+        if (renderer != null) {
+            // begun by the first shape a processor draws, see getDebugRenderer()
+            renderer.setProjectionMatrix(camSys.getGameCamera().combined);
+        }
     }
 
     @Override
     protected void end() {
         super.end();
-        renderer.end();
+        if (renderer != null) {
+            renderer.endFrame();
+        }
     }
 
     @Override
@@ -68,5 +129,95 @@ public class InputSystem extends IteratingSystem {
         for (InputProcessor p : processors) {
             p.process(entityId);
         }
+        if (headlessPlayer != null) {
+            headlessPlayer.process(entityId, im.get(entityId), rm.has(entityId) ? rm.get(entityId) : null);
+        }
+    }
+
+    /**
+     * @return input state for this frame, shared by all processors
+     */
+    public InputSnapshot getInputSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Sets what fires the player's weapon when it is driven from the input snapshot, without a GL context.
+     */
+    public void setHeadlessTrigger(SnapshotPlayerInput.Trigger trigger) {
+        if (headlessPlayer != null) {
+            headlessPlayer.setTrigger(trigger);
+        }
+    }
+
+    /**
+     * @return true if processors should draw their debug shapes. Active in dev mode by default.
+     */
+    public boolean isDebugOverlay() {
+        return debugOverlay;
+    }
+
+    public void setDebugOverlay(boolean enabled) {
+        debugOverlay = enabled;
+        if (renderer != null) {
+            renderer.setEnabled(enabled);
+        }
+    }
+
+    /**
+     * @return renderer for debug shapes, which begins its pass on the first shape drawn in a frame
+     * and drops shapes while the debug overlay is off; null without a GL context
+     */
+    public OverlayShapeRenderer getDebugRenderer() {
+        return renderer;
+    }
+
+    /**
+     * Records the input of every following frame to the file, for an InputReplayer.
+     * Call it before the first world.process(), as replays start from a fresh world.
+     */
+    public void startRecording(File file) throws IOException {
+        stopRecording();
+        recorder = new InputRecorder(file);
+        if (musicSystem != null) {
+            musicSystem.setSeed(recorder.getSeed());
+        }
+        logger.info("recording input to " + file + " with seed " + recorder.getSeed());
+    }
+
+    public void stopRecording() {
+        if (recorder != null) {
+            try {
+                recorder.close();
+                logger.info("recorded " + recorder.getFrameCount() + " frames of input");
+            } catch (IOException ex) {
+                logger.error("input recording close exception: ", ex);
+            }
+            recorder = null;
+        }
+    }
+
+    public boolean isRecording() {
+        return recorder != null;
+    }
+
+    /**
+     * @return queue of raw input events drained each frame; an InputReplayer feeds recorded events into it
+     */
+    public InputEventRing getEventRing() {
+        return events;
+    }
+
+    public long getDroppedEventCount() {
+        return events.getDroppedCount();
+    }
+
+    @Override
+    protected void dispose() {
+        stopRecording();
+        capture.uninstall();
+        if (renderer != null) {
+            renderer.dispose();
+        }
     }
 }
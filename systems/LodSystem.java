@@ -0,0 +1,223 @@
+package io.github.emergentorganization.emergent2dcore.systems;
+
+import com.artemis.Aspect;
+import com.artemis.BaseEntitySystem;
+import com.artemis.ComponentMapper;
+import com.artemis.EntitySubscription;
+import com.artemis.annotations.Profile;
+import com.artemis.annotations.Wire;
+import com.artemis.utils.IntBag;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.math.Vector2;
+import io.github.emergentorganization.cellrpg.tools.profiling.EmergentProfiler;
+import io.github.emergentorganization.emergent2dcore.components.Bounds;
+import io.github.emergentorganization.emergent2dcore.components.CameraFollow;
+import io.github.emergentorganization.emergent2dcore.components.Position;
+import io.github.emergentorganization.emergent2dcore.components.WorldBounds;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Assigns every positioned entity a level-of-detail tier from its distance to the camera
+ * (or to the CameraFollow entity). Tier 0 covers the view and is updated every frame;
+ * each further tier is updated every n-th frame.
+ *
+ * Systems throttle their per-entity work through a Clock, which accumulates the skipped delta so that
+ * throttled motion and animation still cover the right distance and time. Updates of the entities in a tier
+ * are staggered over its interval, so the work is spread evenly across frames.
+ * Add this system before the systems using it, so tiers are current when they run.
+ */
+@Wire
+@Profile(using=EmergentProfiler.class, enabled=true)
+public class LodSystem extends BaseEntitySystem {
+    private final Logger logger = LogManager.getLogger(getClass());
+
+    private ComponentMapper<Position> pm;
+    private ComponentMapper<Bounds> bm;
+    private ComponentMapper<WorldBounds> wbm;
+    private CameraSystem cameraSystem;
+
+    // tier thresholds as multiples of the distance from the view center to its corner
+    private float[] thresholds = {1.5f, 3f, 6f};
+    // frames between updates, per tier
+    private int[] intervals = {1, 2, 4, 8};
+
+    private EntitySubscription followed;
+    private boolean fromFollowEntity = false;
+    private final Vector2 reference = new Vector2();
+
+    private int frame = 0;
+    private byte[] tiers = new byte[128];
+    private int[] tierCounts = new int[intervals.length];
+    private final List<Clock> clocks = new ArrayList<Clock>();
+
+    public LodSystem() {
+        super(Aspect.all(Position.class));
+    }
+
+    @Override
+    protected void initialize() {
+        super.initialize();
+        followed = world.getAspectSubscriptionManager().get(Aspect.all(CameraFollow.class, Position.class, Bounds.class));
+    }
+
+    @Override
+    protected void processSystem() {
+        frame++;
+        OrthographicCamera camera = cameraSystem.getGameCamera();
+        float halfWidth = camera.viewportWidth * camera.zoom / 2f;
+        float halfHeight = camera.viewportHeight * camera.zoom / 2f;
+        float viewRadius2 = halfWidth * halfWidth + halfHeight * halfHeight;
+
+        IntBag followIds = followed.getEntities();
+        if (fromFollowEntity && followIds.size() > 0) {
+            int followId = followIds.get(0);
+            if (wbm.has(followId)) {
+                reference.set(wbm.get(followId).center);
+            } else {
+                pm.get(followId).getCenter(bm.get(followId), 0, reference);
+            }
+        } else {
+            reference.set(camera.position.x, camera.position.y);
+        }
+
+        Arrays.fill(tierCounts, 0);
+        IntBag entities = getSubscription().getEntities();
+        int[] ids = entities.getData();
+        for (int i = 0, s = entities.size(); i < s; i++) {
+            int id = ids[i];
+            Vector2 position = pm.get(id).position;
+            float dx = position.x - reference.x;
+            float dy = position.y - reference.y;
+            float distance2 = (dx * dx + dy * dy) / viewRadius2;  // in squared view radii
+
+            int tier = 0;
+            while (tier < thresholds.length && distance2 > thresholds[tier] * thresholds[tier]) {
+                tier++;
+            }
+            tiers[id] = (byte) tier;
+            tierCounts[tier]++;
+        }
+    }
+
+    @Override
+    protected void inserted(int entityId) {
+        if (entityId >= tiers.length) {
+            tiers = Arrays.copyOf(tiers, Math.max(tiers.length * 2, entityId + 1));
+        }
+        tiers[entityId] = 0;
+    }
+
+    @Override
+    protected void removed(int entityId) {
+        tiers[entityId] = 0;
+        for (int i = 0; i < clocks.size(); i++) {
+            clocks.get(i).reset(entityId);
+        }
+    }
+
+    /**
+     * @return the entity's tier, 0 being closest; entities not yet seen by this system are in tier 0
+     */
+    public int getTier(int entityId) {
+        return entityId < tiers.length ? tiers[entityId] : 0;
+    }
+
+    /**
+     * Sets the tier boundaries and how often each tier is updated.
+     * @param thresholds increasing distances, as multiples of the distance from the view center to its corner;
+     *                   entities beyond thresholds[i] are in tier i + 1
+     * @param intervals frames between updates of each tier; one more than there are thresholds
+     */
+    public void setTiers(float[] thresholds, int[] intervals) {
+        if (intervals.length != thresholds.length + 1 || intervals.length > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("need one interval per tier: " + (thresholds.length + 1)
+                    + " tiers, " + intervals.length + " intervals");
+        }
+        for (int i = 0; i < intervals.length; i++) {
+            if (intervals[i] < 1) {
+                throw new IllegalArgumentException("tier " + i + " interval must be at least 1: " + intervals[i]);
+            }
+        }
+        logger.info("LOD tiers " + Arrays.toString(thresholds) + ", intervals " + Arrays.toString(intervals));
+        this.thresholds = thresholds.clone();
+        this.intervals = intervals.clone();
+        tierCounts = new int[intervals.length];
+        Arrays.fill(tiers, (byte) 0);  // recomputed next frame
+    }
+
+    /**
+     * Measures distances from the CameraFollow entity instead of the camera, when there is one.
+     */
+    public void setFromFollowEntity(boolean enabled) {
+        fromFollowEntity = enabled;
+    }
+
+    public int getTierCount() {
+        return intervals.length;
+    }
+
+    /**
+     * @return number of entities in the given tier in the last frame
+     */
+    public int getEntityCount(int tier) {
+        return tierCounts[tier];
+    }
+
+    /**
+     * Creates a clock for one kind of throttled work, e.g. movement or animation.
+     */
+    public Clock createClock() {
+        Clock clock = new Clock();
+        clocks.add(clock);
+        return clock;
+    }
+
+    /**
+     * Per-entity time accumulator for one kind of throttled work.
+     */
+    public class Clock {
+        private float[] accumulated = new float[128];
+
+        /**
+         * Accumulates this frame's delta for the entity.
+         * @return the delta to apply now, covering every frame since the last update; 0 if the entity is skipped
+         */
+        public float step(int entityId, float delta) {
+            ensureCapacity(entityId + 1);
+            int interval = intervals[getTier(entityId)];
+            if (interval == 1) {
+                float total = accumulated[entityId] + delta;
+                accumulated[entityId] = 0;
+                return total;
+            }
+            accumulated[entityId] += delta;
+            if ((frame + entityId) % interval != 0) {
+                return 0;
+            }
+            float total = accumulated[entityId];
+            accumulated[entityId] = 0;
+            return total;
+        }
+
+        /**
+         * Grows the clock to hold entity ids below the given capacity, so step() never grows it.
+         * step() may then be called concurrently for distinct entities.
+         */
+        public void ensureCapacity(int capacity) {
+            if (capacity > accumulated.length) {
+                accumulated = Arrays.copyOf(accumulated, Math.max(accumulated.length * 2, capacity));
+            }
+        }
+
+        private void reset(int entityId) {
+            if (entityId < accumulated.length) {
+                accumulated[entityId] = 0;
+            }
+        }
+    }
+}
@@ -2,17 +2,21 @@ package io.github.emergentorganization.emergent2dcore.systems;
 
 import com.artemis.BaseSystem;
 import io.github.emergentorganization.cellrpg.core.Tags;
-import io.github.emergentorganization.cellrpg.events.EntityEvent;
 import io.github.emergentorganization.cellrpg.events.GameEvent;
 import io.github.emergentorganization.cellrpg.managers.EventManager;
 import io.github.emergentorganization.cellrpg.systems.CASystems.CAs.CA;
 import io.github.emergentorganization.cellrpg.systems.CASystems.layers.CALayer;
-import io.github.emergentorganization.emergent2dcore.events.EventListener;
+import io.github.emergentorganization.emergent2dcore.events.AsyncEventLane;
+import io.github.emergentorganization.emergent2dcore.events.DeferredEvent;
+import io.github.emergentorganization.emergent2dcore.events.DeferredEventListener;
+import io.github.emergentorganization.emergent2dcore.events.EventDispatcher;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * System which keeps track of the game's current "feel" to tailor musical or other aesthetic choices.
@@ -21,7 +25,12 @@ public class MoodSystem extends BaseSystem {
     private final Logger logger = LogManager.getLogger(getClass());
 
     public int intensity = 0;  // how fast-paced and action packed the current moment is.
+    private final AtomicInteger pendingIntensity = new AtomicInteger();  // from events not yet applied
+    private final EventDispatcher dispatcher;
+    private final AsyncEventLane lane;
+    private final DeferredEventListener intensityListener;
     public static final int MAX_INTENSITY = 100000;
+    private static final float DECAY_FRAME_RATE = 60f;  // decay amounts below are per frame at this rate
     // min: 0, max: 1000  (NOTE: max is not enforced, just assumed. going a little over shouldn't break anything.)
     // intensity should be boosted by things like explosions and spawning enemies, intensity decreases over time.
 
@@ -34,6 +43,13 @@ public class MoodSystem extends BaseSystem {
         EVENT_INTENSITY_MAP.put(GameEvent.VYROID_KILL_STD, 1000);
         EVENT_INTENSITY_MAP.put(GameEvent.COLLISION_BULLET, 500);
     }
+    // the same, indexed by GameEvent ordinal for the listener
+    private static final int[] EVENT_INTENSITY = new int[GameEvent.values().length];
+    static {
+        for (Map.Entry<GameEvent, Integer> entry : EVENT_INTENSITY_MAP.entrySet()) {
+            EVENT_INTENSITY[entry.getKey().ordinal()] = entry.getValue();
+        }
+    }
 
     public static final HashMap<String, Integer> CA_INTENSITY_MAP = new HashMap<String, Integer>();
     static {
@@ -44,19 +60,34 @@ public class MoodSystem extends BaseSystem {
     // TODO: add EntityIntensity_Map
 
     public MoodSystem(EventManager eventManager){
-        // add listener for event effects
-        eventManager.addListener(new EventListener() {
+        // add listener for event effects, subscribed only to the events having one.
+        // It runs on the async lane and only adds up; processSystem applies the sum on the simulation thread.
+        intensityListener = new DeferredEventListener() {
             @Override
-            public void notify(EntityEvent event) {
-                if (EVENT_INTENSITY_MAP.get(event.event) != null) {
-                    intensity += EVENT_INTENSITY_MAP.get(event.event);
-                }
+            public void notify(DeferredEvent event) {
+                pendingIntensity.addAndGet(EVENT_INTENSITY[event.event.ordinal()] * event.count);
             }
-        });
+        };
+        dispatcher = EventDispatcher.of(eventManager);
+        lane = dispatcher.getAsyncLane();
+        for (GameEvent event : EVENT_INTENSITY_MAP.keySet()) {
+            lane.subscribe(event, intensityListener);
+        }
+    }
+
+    @Override
+    protected void dispose() {
+        for (GameEvent event : EVENT_INTENSITY_MAP.keySet()) {
+            lane.unsubscribe(event, intensityListener);
+        }
+        if (lane.isRunning() && lane.getListenerCount() == 0) {
+            dispatcher.dispose();  // stops the lane's thread
+        }
     }
 
     @Override
     public void processSystem() {
+        intensity += pendingIntensity.getAndSet(0);
         logger.trace("mood intensity:" + intensity);
         if (intensity < 1){
             intensity = 0;
@@ -85,6 +116,8 @@ public class MoodSystem extends BaseSystem {
     private void intensityDecay(){
         int minDecay = MAX_INTENSITY/5000;
         int relativeDecay = intensity/50;
-        intensity -= Math.max(minDecay, relativeDecay);
+        // scaled by the time step so intensity decays at the same rate per second at any frame or tick rate
+        float frames = world.getDelta() * DECAY_FRAME_RATE;
+        intensity -= Math.round(Math.max(minDecay, relativeDecay) * frames);
     }
 }
@@ -1,88 +1,142 @@
 package io.github.emergentorganization.emergent2dcore.systems;
 
 import com.artemis.Aspect;
+import com.artemis.BaseEntitySystem;
 import com.artemis.ComponentMapper;
 import com.artemis.annotations.Profile;
 import com.artemis.annotations.Wire;
-import com.artemis.systems.IteratingSystem;
-import com.badlogic.gdx.math.MathUtils;
-import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.physics.box2d.Body;
-import io.github.emergentorganization.cellrpg.components.*;
-import io.github.emergentorganization.cellrpg.managers.PhysicsSystem;
+import com.artemis.utils.IntBag;
 import io.github.emergentorganization.cellrpg.tools.profiling.EmergentProfiler;
-import io.github.emergentorganization.emergent2dcore.components.*;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
+import io.github.emergentorganization.emergent2dcore.components.PhysicsBody;
+import io.github.emergentorganization.emergent2dcore.components.Position;
+import io.github.emergentorganization.emergent2dcore.components.Velocity;
+import io.github.emergentorganization.emergent2dcore.systems.movement.KinematicSet;
+import io.github.emergentorganization.emergent2dcore.systems.movement.ParallelIntegrator;
 
+import java.util.BitSet;
 
+/**
+ * Moves entities without a physics body by their velocity.
+ * Physics bodies are synced by PhysicsSyncSystem and driven by InputMovementSystem;
+ * equipment follows its owner in EquipmentSystem.
+ */
 @Wire
 @Profile(using=EmergentProfiler.class, enabled=true)
-public class MovementSystem extends IteratingSystem {
+public class MovementSystem extends BaseEntitySystem {
 
     private ComponentMapper<Position> posMapper;
     private ComponentMapper<Velocity> velMapper;
-    private ComponentMapper<PhysicsBody> physMapper;
-    private ComponentMapper<InputComponent> inputMapper;
-    private ComponentMapper<Rotation> rotMapper;
-    private ComponentMapper<EquipmentList> equipMapper;
-    private ComponentMapper<Bounds> boundsMapper;
-    private ComponentMapper<Lifecycle> lifeCycleMapper;
+    @Wire(failOnNull = false)
+    private LodSystem lodSystem;
+    private LodSystem.Clock lodClock;  // null if the world has no LodSystem
+    @Wire(failOnNull = false)
+    private RenderSystem renderSystem;
 
-    private final Logger logger = LogManager.getLogger(getClass());
+    // resting entities to report to the RenderSystem the first frame they have a velocity
+    private final BitSet watched = new BitSet();
+    private final IntBag watchList = new IntBag();
+
+    // densely packed vectors of this system's entities, integrated in one pass
+    private final KinematicSet kinematics = new KinematicSet();
+    private ParallelIntegrator parallelIntegrator;  // null unless parallel mode is enabled
 
     public MovementSystem() {
-        super(Aspect.all(Position.class, Velocity.class));
+        super(Aspect.all(Position.class, Velocity.class).exclude(PhysicsBody.class));
     }
 
     @Override
-    protected void process(int entityId) {
-        try {
-            Position p = posMapper.get(entityId);
-            Rotation r = rotMapper.get(entityId);
-            Velocity v = velMapper.get(entityId);
-
-            if (physMapper.has(entityId)) {
-                Body body = world.getSystem(PhysicsSystem.class).getBody(entityId);
-                if (inputMapper.has(entityId)) { // control physics body by input
-                    processPhysicsMovement(body, inputMapper.get(entityId), p, v, r, entityId);
-                } else { // keep image with body for when physics is acting upon it
-                    p.position.set(body.getPosition());
-                    r.angle = MathUtils.radiansToDegrees * body.getAngle();
-                    v.velocity.set(body.getLinearVelocity());
+    protected void initialize() {
+        super.initialize();
+        if (lodSystem != null) {
+            lodClock = lodSystem.createClock();
+        }
+    }
+
+    @Override
+    protected void inserted(int entityId) {
+        kinematics.add(entityId, posMapper.get(entityId).position, velMapper.get(entityId).velocity);
+    }
+
+    @Override
+    protected void removed(int entityId) {
+        kinematics.remove(entityId);
+        watched.clear(entityId);
+    }
+
+    @Override
+    protected void processSystem() {
+        if (parallelIntegrator != null) {
+            parallelIntegrator.integrate(kinematics, world.getDelta(), lodClock);
+        } else if (lodClock != null) {
+            // distant entities are moved less often, by the time accumulated since their last move
+            kinematics.integrate(world.getDelta(), lodClock);
+        } else {
+            kinematics.integrate(world.getDelta());
+        }
+        if (!watchList.isEmpty()) {
+            reportStartedMoving();
+        }
+    }
+
+    private void reportStartedMoving() {
+        int[] ids = watchList.getData();
+        for (int i = watchList.size() - 1; i >= 0; i--) {
+            int id = ids[i];
+            if (watched.get(id)) {
+                if (velMapper.get(id).velocity.isZero()) {
+                    continue;
+                }
+                if (renderSystem != null) {
+                    renderSystem.invalidateStatic(id);
                 }
-            } else { // move image directly since there is no physics body
-                float d = world.getDelta();
-                p.position.add(v.velocity.x * d, v.velocity.y * d);
+                watched.clear(id);
             }
+            watchList.remove(i);
+        }
+    }
 
-            // Keep equipment with entity
-            if (equipMapper.has(entityId)) {
-                EquipmentList equipmentList = equipMapper.get(entityId);
-                equipmentList.moveEquipment(boundsMapper, posMapper);
-                equipmentList.rechargeEquipment(); // TODO: move this to EnergySystem
-            }
-        } catch (NullPointerException ex){
-            logger.error("MoveSys error; killing offending entity #"+entityId, ex);
-            world.getEntity(entityId).getComponent(Lifecycle.class).kill();
+    /**
+     * Reports the entity to the RenderSystem's invalidateStatic() on the first frame it has a velocity,
+     * so its static cache notices it moving even off screen. Only entities of this system are watched.
+     */
+    public void watchForMovement(int entityId) {
+        if (kinematics.contains(entityId) && !watched.get(entityId)) {
+            watched.set(entityId);
+            watchList.add(entityId);
         }
     }
 
-    private void processPhysicsMovement(Body body, InputComponent ic, Position pc, Velocity vc, Rotation rc, int id) {
-        if (body == null){
-            logger.error("ERR: cannot process movement for ent#" + id + "; body == null");
-            lifeCycleMapper.get(id).kill();
-            return;
+    /**
+     * @return number of entities moved by this system
+     */
+    public int getKinematicCount() {
+        return kinematics.size();
+    }
+
+    /**
+     * Integrates on a ForkJoin pool. The pass is joined before processSystem() returns,
+     * so systems running afterwards see every entity moved.
+     * @param parallelism number of worker threads, or 0 to return to single-threaded integration
+     */
+    public void setParallel(int parallelism) {
+        if (parallelIntegrator != null) {
+            parallelIntegrator.shutdown();
+            parallelIntegrator = null;
+        }
+        if (parallelism > 0) {
+            parallelIntegrator = new ParallelIntegrator(parallelism);
         }
-        body.setLinearVelocity(0, 0);
+    }
 
-        // accelerate
-        Vector2 force = ic.direction.cpy().nor().scl(ic.speed);
-        body.applyLinearImpulse(force, body.getWorldCenter(), true);
+    /**
+     * @return the parallel integrator, to tune its chunk size and threshold; null unless parallel mode is enabled
+     */
+    public ParallelIntegrator getParallelIntegrator() {
+        return parallelIntegrator;
+    }
 
-        // update entity
-        pc.position.set(body.getPosition());
-        vc.velocity.set(body.getLinearVelocity());
-        rc.angle = MathUtils.radiansToDegrees * body.getAngle();
+    @Override
+    protected void dispose() {
+        setParallel(0);
     }
 }
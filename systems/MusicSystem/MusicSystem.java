@@ -3,6 +3,7 @@ package io.github.emergentorganization.emergent2dcore.systems.MusicSystem;
 import com.artemis.BaseSystem;
 import com.badlogic.gdx.audio.Sound;
 import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.math.RandomXS128;
 import io.github.emergentorganization.cellrpg.core.SoundEffect;
 import io.github.emergentorganization.cellrpg.managers.AssetManager;
 import io.github.emergentorganization.cellrpg.systems.TimingSystem;
@@ -32,6 +33,9 @@ public class MusicSystem extends BaseSystem {
     private ArrayList<Sound> currentLoops = new ArrayList<Sound>();  // currently playing loops
     private ArrayList<Sound> loopsToRemove = new ArrayList<Sound>(); // loops queued for removal next round
     private final Timer loopTimer = new Timer();
+    // own generator: loop choice depends on wall-clock timing and mood, so it must not draw from MathUtils.random,
+    // which gameplay shares and input recordings seed
+    private final RandomXS128 random = new RandomXS128();
 
     private boolean prepped = false;  // flag used to track if next set of loops has been queued yet
     private boolean scheduled = false;
@@ -98,6 +102,13 @@ public class MusicSystem extends BaseSystem {
         constantLoops[1].setLooping(constantLoops[1].play(), false);
     }
 
+    /**
+     * Reseeds the choice of loops, e.g. with the seed of an input recording being made or replayed.
+     */
+    public void setSeed(long seed) {
+        random.setSeed(seed);
+    }
+
     private void scheduleNextLoop() {
         // schedules a new loop play
         logger.debug("scheduling next music loop");
@@ -107,7 +118,7 @@ public class MusicSystem extends BaseSystem {
     }
 
     private Sound getRandomSound() {
-        int index = (int) Math.max(0, Math.floor((Math.random() * unusedLoops.size()) - 1));
+        int index = (int) Math.max(0, Math.floor((random.nextFloat() * unusedLoops.size()) - 1));
         return unusedLoops.get(index);
     }
 
@@ -122,9 +133,9 @@ public class MusicSystem extends BaseSystem {
 
         // swap out a loops to add random variation
         if (currentLoops.size() > 0 && unusedLoops.size() > 0) {
-            int randomCurrentLoopIndex = (int) Math.max(0, Math.floor((Math.random() * currentLoops.size()) - 1));
+            int randomCurrentLoopIndex = (int) Math.max(0, Math.floor((random.nextFloat() * currentLoops.size()) - 1));
             loopsToRemove.add(currentLoops.get(randomCurrentLoopIndex));
-            int randomUnusedLoopIndex = (int) Math.max(0, Math.floor((Math.random() * unusedLoops.size()) - 1));
+            int randomUnusedLoopIndex = (int) Math.max(0, Math.floor((random.nextFloat() * unusedLoops.size()) - 1));
             currentLoops.add(unusedLoops.get(randomUnusedLoopIndex));
         }
 
@@ -0,0 +1,146 @@
+package io.github.emergentorganization.emergent2dcore.systems;
+
+import com.artemis.Aspect;
+import com.artemis.ComponentMapper;
+import com.artemis.annotations.Profile;
+import com.artemis.annotations.Wire;
+import com.artemis.systems.IteratingSystem;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.BodyDef;
+import io.github.emergentorganization.cellrpg.managers.PhysicsSystem;
+import io.github.emergentorganization.cellrpg.tools.profiling.EmergentProfiler;
+import io.github.emergentorganization.emergent2dcore.components.InputComponent;
+import io.github.emergentorganization.emergent2dcore.components.Lifecycle;
+import io.github.emergentorganization.emergent2dcore.components.PhysicsBody;
+import io.github.emergentorganization.emergent2dcore.components.Position;
+import io.github.emergentorganization.emergent2dcore.components.Rotation;
+import io.github.emergentorganization.emergent2dcore.components.Velocity;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the image of physics bodies which are not input-driven with their body, for when physics is acting upon it.
+ * Sleeping bodies, and static bodies whose transform and type are unchanged since their last sync, have not moved
+ * and are skipped; a static body moved with setTransform() is synced again on the next frame.
+ */
+@Wire
+@Profile(using=EmergentProfiler.class, enabled=true)
+public class PhysicsSyncSystem extends IteratingSystem {
+    private final Logger logger = LogManager.getLogger(getClass());
+
+    private static final byte UNSYNCED = 0;
+    private static final byte MOVABLE = 1;
+    private static final byte STATIC = 2;
+
+    private ComponentMapper<Position> posMapper;
+    private ComponentMapper<Rotation> rotMapper;
+    private ComponentMapper<Velocity> velMapper;
+    private ComponentMapper<Lifecycle> lifeCycleMapper;
+    private PhysicsSystem physicsSystem;
+    @Wire(failOnNull = false)
+    private RenderSystem renderSystem;  // told of synced entities, which may be cached as static
+
+    private byte[] state = new byte[128];  // by entity id
+    // transform of static bodies when last synced, by entity id
+    private float[] syncedX = new float[128];
+    private float[] syncedY = new float[128];
+    private float[] syncedAngle = new float[128];
+
+    // entities processed in the last frame, by outcome
+    private int synced;
+    private int skippedAsleep;
+    private int skippedStatic;
+
+    public PhysicsSyncSystem() {
+        super(Aspect.all(Position.class, Velocity.class, PhysicsBody.class)
+                .exclude(InputComponent.class));
+    }
+
+    @Override
+    protected void begin() {
+        synced = 0;
+        skippedAsleep = 0;
+        skippedStatic = 0;
+    }
+
+    @Override
+    protected void inserted(int entityId) {
+        if (entityId >= state.length) {
+            int length = Math.max(state.length * 2, entityId + 1);
+            state = Arrays.copyOf(state, length);
+            syncedX = Arrays.copyOf(syncedX, length);
+            syncedY = Arrays.copyOf(syncedY, length);
+            syncedAngle = Arrays.copyOf(syncedAngle, length);
+        }
+        state[entityId] = UNSYNCED;
+    }
+
+    @Override
+    protected void process(int entityId) {
+        Body body = physicsSystem.getBody(entityId);
+        if (body == null) {
+            logger.error("cannot sync ent#" + entityId + "; body == null. killing it");
+            if (lifeCycleMapper.has(entityId)) {
+                lifeCycleMapper.get(entityId).kill();
+            }
+            return;
+        }
+        byte s = state[entityId];
+        Vector2 position = body.getPosition();
+        float angle = body.getAngle();
+        boolean isStatic = body.getType() == BodyDef.BodyType.StaticBody;
+        if (s == STATIC && isStatic && position.x == syncedX[entityId] && position.y == syncedY[entityId]
+                && angle == syncedAngle[entityId]) {
+            skippedStatic++;
+            return;
+        }
+        if (s == MOVABLE && !body.isAwake()) {
+            skippedAsleep++;
+            return;
+        }
+
+        posMapper.get(entityId).position.set(position);
+        if (rotMapper.has(entityId)) {  // bodies without one still have their position synced
+            rotMapper.get(entityId).angle = MathUtils.radiansToDegrees * angle;
+        }
+        velMapper.get(entityId).velocity.set(body.getLinearVelocity());
+        if (isStatic) {
+            state[entityId] = STATIC;
+            syncedX[entityId] = position.x;
+            syncedY[entityId] = position.y;
+            syncedAngle[entityId] = angle;
+        } else {
+            state[entityId] = MOVABLE;
+        }
+        if (renderSystem != null) {
+            renderSystem.invalidateStatic(entityId);
+        }
+        synced++;
+    }
+
+    /**
+     * Forces the entity's image to be synced with its body next frame, e.g. after its body was moved
+     * while asleep. Moved or retyped static bodies are detected without it.
+     */
+    public void invalidate(int entityId) {
+        if (entityId < state.length) {
+            state[entityId] = UNSYNCED;
+        }
+    }
+
+    public int getSyncedCount() {
+        return synced;
+    }
+
+    public int getSkippedAsleepCount() {
+        return skippedAsleep;
+    }
+
+    public int getSkippedStaticCount() {
+        return skippedStatic;
+    }
+}
@@ -5,22 +5,43 @@ import com.artemis.BaseEntitySystem;
 import com.artemis.ComponentMapper;
 import com.artemis.annotations.Profile;
 import com.artemis.annotations.Wire;
+import com.artemis.utils.IntBag;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.GL20;
-import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.Texture;
-import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.Animation;
 import com.badlogic.gdx.graphics.g2d.ParticleEffect;
+import com.badlogic.gdx.graphics.g2d.ParticleEffectPool.PooledEffect;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
-import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import io.github.emergentorganization.cellrpg.core.RenderIndex;
+import io.github.emergentorganization.cellrpg.core.entityfactory.EntityFactory;
 import io.github.emergentorganization.cellrpg.tools.profiling.EmergentProfiler;
+import io.github.emergentorganization.emergent2dcore.components.Bounds;
 import io.github.emergentorganization.emergent2dcore.components.Position;
 import io.github.emergentorganization.emergent2dcore.components.Rotation;
 import io.github.emergentorganization.emergent2dcore.components.Scale;
+import io.github.emergentorganization.emergent2dcore.components.Velocity;
 import io.github.emergentorganization.emergent2dcore.components.Visual;
+import io.github.emergentorganization.emergent2dcore.components.WorldBounds;
 import io.github.emergentorganization.cellrpg.managers.AssetManager;
 import io.github.emergentorganization.cellrpg.tools.postprocessing.TronShader;
+import io.github.emergentorganization.emergent2dcore.systems.render.BatchSpriteRenderer;
+import io.github.emergentorganization.emergent2dcore.systems.render.MeshSpriteRenderer;
+import io.github.emergentorganization.emergent2dcore.systems.render.OrphanParticleEffects;
+import io.github.emergentorganization.emergent2dcore.systems.render.PostProcessChain;
+import io.github.emergentorganization.emergent2dcore.systems.render.PostProcessEffect;
+import io.github.emergentorganization.emergent2dcore.systems.render.RenderLayers;
+import io.github.emergentorganization.emergent2dcore.systems.render.RenderSnapshot;
+import io.github.emergentorganization.emergent2dcore.systems.render.RenderSnapshotBuffer;
+import io.github.emergentorganization.emergent2dcore.systems.render.RenderStats;
+import io.github.emergentorganization.emergent2dcore.systems.render.ResolutionScaleController;
+import io.github.emergentorganization.emergent2dcore.systems.render.SpriteRenderer;
+import io.github.emergentorganization.emergent2dcore.systems.render.StaticLayerCache;
+import io.github.emergentorganization.emergent2dcore.systems.render.VisualRegistry;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -29,76 +50,356 @@ import java.util.*;
 
 @Wire
 @Profile(using=EmergentProfiler.class, enabled=true)
-public class RenderSystem extends BaseEntitySystem {
+public class RenderSystem extends BaseEntitySystem implements FrameSystem {
     private final Logger logger = LogManager.getLogger(getClass());
 
-    private final TextureRegion fboRegion;
-    private final FrameBuffer frameBuffer;
     private final SpriteBatch batch;
-    private final LinkedList<Integer> sortedEntityIds;
+    private final SpriteRenderer batchRenderer;
+    private SpriteRenderer spriteRenderer;  // backend entity sprites are submitted to
+    private MeshSpriteRenderer meshRenderer;  // created on first use
+    private final RenderLayers renderLayers = new RenderLayers();
     private TronShader tronShader;
     private ComponentMapper<Visual> vm;
     private ComponentMapper<Position> pm;
     private ComponentMapper<Scale> sm;
     private ComponentMapper<Rotation> rm;
+    private ComponentMapper<Bounds> bm;
+    private ComponentMapper<Velocity> velm;
+    private ComponentMapper<WorldBounds> wbm;
     private CameraSystem cameraSystem;
+    @Wire(failOnNull = false)
+    private LodSystem lodSystem;
+    private LodSystem.Clock animationClock;  // throttles animations of distant entities; null without a LodSystem
+    @Wire(failOnNull = false)
+    private TransformHistorySystem transformHistory;  // interpolates between simulation ticks; optional
+    @Wire(failOnNull = false)
+    private MovementSystem movementSystem;  // reports cached entities that start moving; optional
     private AssetManager assetManager; // being a registered system, it is injected on runtime
     private boolean tronShaderEnabled = false;
-    private Batch outBatch;
+    private final PostProcessChain postProcess;
+    private boolean drawingToScene;  // scene drawn into the post-processing buffer instead of the screen
+    private ResolutionScaleController resolutionScale;  // null unless dynamic resolution is enabled
+    private final RenderStats stats = new RenderStats();  // written on the thread processing the world
+    private final RenderStats snapshotStats = new RenderStats();  // written by renderSnapshot() on the GL thread
 
-    // list of particleEffects with no parent entity
-    private ArrayList<ParticleEffect> particleEffects = new ArrayList<ParticleEffect>();
+    // camera view rectangle, updated at the start of each frame
+    private boolean cullingEnabled = true;
+    private float viewMinX, viewMinY, viewMaxX, viewMaxY;
+    private final WorldBounds viewTestBounds = new WorldBounds();  // scratch box for entities without a current one
+
+    // layers drawn back-to-front by Position.y instead of grouped by texture
+    private final boolean[] ySortedLayers = new boolean[RenderIndex.values().length];
+
+    // texture of each entity's last drawn region, used as the secondary sort key within a layer
+    private final ObjectIntMap<Texture> textureKeys = new ObjectIntMap<Texture>();
+    private Texture[] entityTextures = new Texture[128];
+    private Texture lastDrawnTexture;
+
+    // entities culled last frame; their animations advance without resolving a new keyframe
+    private boolean[] culled = new boolean[128];
+    private final IntBag relayered = new IntBag();
+
+    // non-moving BACKGROUND entities, drawn from SpriteCaches instead of the batch
+    private StaticLayerCache staticLayer;
+    private boolean staticCachingEnabled = true;
+    private final IntBag ejectedStatics = new IntBag();
+    private final IntBag readmittedStatics = new IntBag();
+
+    // snapshot mode: extract drawable state on the simulation thread, draw it from renderSnapshot()
+    private boolean snapshotMode = false;
+    private RenderSnapshotBuffer snapshots;
+    private RenderSnapshot currentSnapshot;  // snapshot being filled this frame, null if drawing directly
+    private int currentLayer;
+
+    // particleEffects with no parent entity
+    private final OrphanParticleEffects particleEffects = new OrphanParticleEffects();
 
     public RenderSystem(SpriteBatch batch) {
         super(Aspect.all(Position.class, Rotation.class, Scale.class, Visual.class));  // TODO: .one(Visual.class, Particles.class)
 
         this.batch = batch;
-        this.outBatch = new SpriteBatch();
-        sortedEntityIds = new LinkedList<Integer>();
-        frameBuffer = new FrameBuffer(Pixmap.Format.RGBA8888, Gdx.graphics.getWidth(), Gdx.graphics.getHeight(), true);
-        Texture cb = frameBuffer.getColorBufferTexture();
-        fboRegion = new TextureRegion(cb, 0, 0, cb.getWidth(), cb.getHeight());
-        fboRegion.flip(false, true); // FBO uses lower left, TextureRegion uses upper-left
+        this.batchRenderer = new BatchSpriteRenderer(batch);
+        this.spriteRenderer = batchRenderer;
+        this.postProcess = new PostProcessChain(Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+    }
+
+    @Override
+    protected void initialize() {
+        super.initialize();
+        staticLayer = new StaticLayerCache(vm, pm, rm, sm, velm, assetManager, StaticLayerCache.DEFAULT_CHUNK_SIZE);
+        if (lodSystem != null) {
+            animationClock = lodSystem.createClock();
+        }
     }
 
     public void registerOrphanParticleEffect(ParticleEffect effect){
-        // registers an (entity-parent)-less particle effect for drawing
+        // registers an (entity-parent)-less particle effect for drawing; it is disposed once complete
         particleEffects.add(effect);
     }
 
+    /**
+     * Registers a pool of orphan particle effects which can then be spawned by type without allocating.
+     * @see OrphanParticleEffects#registerType(String, ParticleEffect, int, int)
+     */
+    public void registerOrphanParticleEffectType(String type, ParticleEffect prototype, int initialCapacity, int max) {
+        particleEffects.registerType(type, prototype, initialCapacity, max);
+    }
+
+    /**
+     * Spawns a pooled orphan particle effect; it is returned to its pool once complete.
+     * @return the started effect, or null if the type has not been registered
+     */
+    public PooledEffect spawnOrphanParticleEffect(String type, float x, float y) {
+        return particleEffects.spawn(type, x, y);
+    }
+
+    /**
+     * Caps the number of live orphan particle effects; the oldest is evicted when the cap is reached.
+     */
+    public void setMaxOrphanParticleEffects(int max) {
+        particleEffects.setMaxActive(max);
+    }
+
     @Override
     protected void begin() {
-        frameBuffer.begin();
+        OrthographicCamera camera = cameraSystem.getGameCamera();
+        updateViewBounds(camera);
+        stats.reset();
+        lastDrawnTexture = null;
+
+        if (snapshotMode) {
+            currentSnapshot = snapshots.beginWrite();
+            if (currentSnapshot != null) {
+                currentSnapshot.begin(camera.combined);
+            }
+            return;
+        }
+        beginScene();
+        spriteRenderer.resetMaxSpritesInBatch();
+        spriteRenderer.begin(camera.combined);
+    }
+
+    private void beginScene() {
+        postProcess.resize(Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+        if (resolutionScale != null) {
+            postProcess.setSceneScale(resolutionScale.update(Gdx.graphics.getRawDeltaTime()));
+        }
+        drawingToScene = tronShaderEnabled || postProcess.hasEnabledEffects() || postProcess.getSceneScale() < 1;
+        if (drawingToScene) {
+            postProcess.beginScene();
+        }
+        Gdx.gl.glClearColor(0, 0, 0, 1);
         Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
-        batch.setProjectionMatrix(cameraSystem.getGameCamera().combined);
-        batch.begin();
+    }
+
+    private void endScene(RenderStats stats) {
+        if (!drawingToScene) {
+            return;
+        }
+        postProcess.endScene();
+        if (tronShaderEnabled) {
+            tronShader.render(postProcess.getSceneBuffer());
+        }
+        postProcess.process();
+        stats.postProcessPasses = postProcess.getPassCount();
     }
 
     @Override
     protected void processSystem() {
         logger.trace("render dt: " + world.getDelta());
 
+        updateVisuals(world.getDelta());
+        staticLayer.validate(ejectedStatics, viewMinX, viewMinY, viewMaxX, viewMaxY);
+        insertDynamic(ejectedStatics);
+        if (staticCachingEnabled && !snapshotMode) {
+            readmitStatics();
+        }
+        if (snapshotMode && currentSnapshot == null) {
+            return;  // render thread still holds the back buffer; skip extraction this frame
+        }
+
         // render entities:
-        for (Integer id : sortedEntityIds) {
-            process(id);
+        final int staticLayerOrdinal = RenderIndex.BACKGROUND.ordinal();
+        for (int layer = 0, layerCount = renderLayers.getLayerCount(); layer < layerCount; layer++) {
+            if (layer == staticLayerOrdinal && staticLayer.size() > 0 && !snapshotMode) {
+                drawStaticLayer();
+            }
+            if (ySortedLayers[layer]) {
+                updateDepthKeys(layer);
+            }
+            renderLayers.sort(layer);
+            currentLayer = layer;
+            IntBag entities = renderLayers.getLayer(layer);
+            int[] ids = entities.getData();
+            for (int i = 0, s = entities.size(); i < s; i++) {
+                process(ids[i]);
+            }
         }
 
+        if (snapshotMode) {
+            return;
+        }
+        spriteRenderer.end();
+        stats.renderCalls += spriteRenderer.getRenderCalls();
+        stats.maxSpritesInBatch = spriteRenderer.getMaxSpritesInBatch();
+        drawParticleEffects(cameraSystem.getGameCamera().combined, world.getDelta(), stats);
+    }
+
+    private void drawParticleEffects(Matrix4 projection, float delta, RenderStats stats) {
         // render non-entity particle effects:
-        ArrayList<ParticleEffect> delQueue = new ArrayList<ParticleEffect>();
-        logger.debug("rendering " + particleEffects.size() + " orphan particle effects");
-        for (ParticleEffect p : particleEffects){
-            if(p.isComplete()){
-                p.dispose();
-                delQueue.add(p);
-            } else {
-                p.update(world.getDelta());
-                p.draw(batch);
+        batch.setProjectionMatrix(projection);
+        batch.begin();
+        stats.evictedParticleEffects = particleEffects.updateAndDraw(batch, delta);
+        stats.activeParticleEffects = particleEffects.getActiveCount();
+        stats.pooledParticleEffects = particleEffects.getPooledCount();
+        batch.end();
+        stats.renderCalls += batch.renderCalls;
+    }
+
+    /**
+     * Draws the most recently extracted snapshot. Only used in snapshot mode; must be called on the GL thread,
+     * e.g. from the application's render() while the world is processed on another thread.
+     * Orphan particle effects are updated and drawn here too, so in snapshot mode they must be spawned on this thread.
+     * @return false if no snapshot has been published yet
+     */
+    public boolean renderSnapshot() {
+        RenderSnapshot snapshot = snapshots != null ? snapshots.acquire() : null;
+        if (snapshot == null) {
+            return false;
+        }
+        try {
+            // counters of the extraction come with the snapshot; those of drawing it are added here
+            snapshotStats.set(snapshot.stats);
+            beginScene();
+            spriteRenderer.resetMaxSpritesInBatch();
+            snapshot.submitTo(spriteRenderer);
+            snapshotStats.renderCalls = spriteRenderer.getRenderCalls();
+            snapshotStats.maxSpritesInBatch = spriteRenderer.getMaxSpritesInBatch();
+            drawParticleEffects(snapshot.projection, Gdx.graphics.getDeltaTime(), snapshotStats);
+            endScene(snapshotStats);
+        } finally {
+            snapshots.release();
+        }
+        return true;
+    }
+
+    private void drawStaticLayer() {
+        // SpriteCache cannot draw while the sprite renderer is drawing
+        Matrix4 projection = cameraSystem.getGameCamera().combined;
+        spriteRenderer.end();
+        stats.renderCalls += spriteRenderer.getRenderCalls();
+        stats.staticChunksDrawn = staticLayer.draw(projection, viewMinX, viewMinY, viewMaxX, viewMaxY);
+        stats.staticChunkRebuilds = staticLayer.pollRebuilds();
+        stats.renderCalls += stats.staticChunksDrawn;
+        spriteRenderer.begin(projection);
+    }
+
+    private void updateDepthKeys(int layer) {
+        // entities further up the screen are drawn first so that lower ones overlap them.
+        // Positions change little between frames, so the insertion sort in RenderLayers stays close to O(n).
+        IntBag entities = renderLayers.getLayer(layer);
+        int[] ids = entities.getData();
+        for (int i = 0, s = entities.size(); i < s; i++) {
+            float y = pm.get(ids[i]).position.y;
+            if (transformHistory != null) {
+                y = transformHistory.interpolateY(ids[i], y);  // the y it is drawn at
+            }
+            renderLayers.setSortKeyAt(layer, i, -y);
+        }
+    }
+
+    private void insertDynamic(IntBag ids) {
+        for (int i = 0, s = ids.size(); i < s; i++) {
+            int id = ids.get(i);
+            renderLayers.insert(id, vm.get(id).index);
+        }
+        ids.setSize(0);
+    }
+
+    private void readmitStatics() {
+        staticLayer.pollReadmissions(readmittedStatics);
+        for (int i = 0, s = readmittedStatics.size(); i < s; i++) {
+            int id = readmittedStatics.get(i);
+            renderLayers.remove(id);
+            addStatic(id);
+        }
+        readmittedStatics.setSize(0);
+    }
+
+    private void addStatic(int entityId) {
+        staticLayer.add(entityId);
+        if (movementSystem != null) {
+            movementSystem.watchForMovement(entityId);  // answered through invalidateStatic()
+        }
+    }
+
+    /**
+     * Advances animations and resolves the region each entity draws this frame, then moves entities whose
+     * Visual.index changed since the last frame. Regions and animations are looked up by handle; the AssetManager
+     * is only asked for visuals nothing has been registered for, which are then registered.
+     */
+    private void updateVisuals(float delta) {
+        for (int layer = 0, layerCount = renderLayers.getLayerCount(); layer < layerCount; layer++) {
+            IntBag entities = renderLayers.getLayer(layer);
+            int[] ids = entities.getData();
+            for (int i = 0, s = entities.size(); i < s; i++) {
+                int id = ids[i];
+                Visual v = vm.get(id);
+                if (v.id != v.handleId) {
+                    if (v.id == null || !v.id.equals(v.handleId)) {
+                        // id was assigned directly: the handle and region cached for the old one are stale
+                        v.handle = VisualRegistry.getHandle(v.id);
+                        v.region = null;
+                    }
+                    v.handleId = v.id;
+                }
+                if (v.isAnimation) {
+                    if (!v.paused) {
+                        v.stateTime += animationClock != null ? animationClock.step(id, delta) : delta;
+                    }
+                    if (v.region == null || !culled[id] || !cullingEnabled) {
+                        v.region = resolveFrame(v);
+                    }
+                } else if (v.region == null) {
+                    v.region = resolveTexture(v);
+                }
+                if (v.index.ordinal() != layer) {
+                    relayered.add(id);  // moved after the pass, so no entity is visited twice
+                }
+            }
+        }
+
+        for (int i = 0, s = relayered.size(); i < s; i++) {
+            int id = relayered.get(i);
+            renderLayers.update(id, vm.get(id).index);
+            if (entityTextures[id] != null && !ySortedLayers[renderLayers.getLayerOrdinal(id)]) {
+                renderLayers.setSortKey(id, getTextureKey(entityTextures[id]));
             }
         }
-        logger.trace(delQueue.size() + " particle effects complete; removing.");
-        for (ParticleEffect dp : delQueue){
-            particleEffects.remove(dp);
+        relayered.setSize(0);
+    }
+
+    private TextureRegion resolveFrame(Visual v) {
+        Animation animation = VisualRegistry.getAnimation(v.handle);
+        if (animation == null) {
+            animation = assetManager.getAnimation(v.id);
+            if (animation == null) {
+                return assetManager.getCurrentRegion(v);
+            }
+            VisualRegistry.registerAnimation(v.id, animation);
         }
+        return (TextureRegion) animation.getKeyFrame(v.stateTime);
+    }
+
+    private TextureRegion resolveTexture(Visual v) {
+        TextureRegion region = VisualRegistry.getRegion(v.handle);
+        if (region == null) {
+            region = assetManager.getCurrentRegion(v);
+            if (region != null) {
+                VisualRegistry.registerRegion(v.id, region);
+            }
+        }
+        return region;
     }
 
     protected void process(int entityId) {
@@ -107,59 +408,304 @@ public class RenderSystem extends BaseEntitySystem {
         Scale s = sm.get(entityId);
         Rotation r = rm.get(entityId);
 
-        TextureRegion t = assetManager.getCurrentRegion(v);
+        TextureRegion t = v.region;
         if (t != null) {
-            if (v.isAnimation) {
-                v.stateTime += world.getDelta();
+            float x = p.position.x, y = p.position.y, angle = r.angle;
+            if (transformHistory != null) {
+                x = transformHistory.interpolateX(entityId, x);
+                y = transformHistory.interpolateY(entityId, y);
+                angle = transformHistory.interpolateAngle(entityId, angle);
+            }
+            culled[entityId] = cullingEnabled && !isInView(entityId, p, r, x, y, s.scale, angle, t);
+            if (culled[entityId]) {
+                stats.culled++;
+                return;
+            }
+            Texture texture = t.getTexture();
+            if (texture != entityTextures[entityId]) {
+                entityTextures[entityId] = texture;
+                if (!ySortedLayers[renderLayers.getLayerOrdinal(entityId)]) {
+                    renderLayers.setSortKey(entityId, getTextureKey(texture));
+                }
+            }
+            if (texture != lastDrawnTexture) {
+                if (lastDrawnTexture != null) {
+                    stats.textureSwitches++;
+                }
+                lastDrawnTexture = texture;
+            }
+            if (currentSnapshot != null) {
+                currentSnapshot.add(entityId, currentLayer, t, x, y, s.scale, angle);
+            } else {
+                spriteRenderer.draw(t, x, y, s.scale, angle);
             }
-            batch.draw(t, p.position.x, p.position.y, 0, 0, t.getRegionWidth(), t.getRegionHeight(), s.scale, s.scale, r.angle);
+            stats.drawn++;
         }
     }
 
+    private int getTextureKey(Texture texture) {
+        int key = textureKeys.get(texture, -1);
+        if (key == -1) {
+            key = textureKeys.size;
+            textureKeys.put(texture, key);
+        }
+        return key;
+    }
+
+    private void updateViewBounds(OrthographicCamera camera) {
+        float halfWidth = camera.viewportWidth * camera.zoom / 2f;
+        float halfHeight = camera.viewportHeight * camera.zoom / 2f;
+        viewMinX = camera.position.x - halfWidth;
+        viewMaxX = camera.position.x + halfWidth;
+        viewMinY = camera.position.y - halfHeight;
+        viewMaxY = camera.position.y + halfHeight;
+    }
+
+    /**
+     * Tests the entity's rotated bounds against the camera view.
+     * Entities drawn where they are use their cached WorldBounds; interpolated ones get a box computed the same way.
+     * Entities without Bounds fall back to the size of the region being drawn.
+     */
+    private boolean isInView(int entityId, Position p, Rotation r, float x, float y, float scale, float angle,
+                             TextureRegion t) {
+        WorldBounds box;
+        if (wbm.has(entityId) && x == p.position.x && y == p.position.y && angle == r.angle) {
+            box = wbm.get(entityId);
+        } else {
+            box = viewTestBounds;
+            if (bm.has(entityId)) {
+                Bounds b = bm.get(entityId);
+                WorldBoundsSystem.compute(x, y, angle, scale, b.width, b.height, box);
+            } else {
+                // region size times scale is the size at the default world scale, as Bounds are
+                WorldBoundsSystem.compute(x, y, angle, EntityFactory.SCALE_WORLD_TO_BOX,
+                        t.getRegionWidth() * scale, t.getRegionHeight() * scale, box);
+            }
+        }
+        return box.overlaps(viewMinX, viewMinY, viewMaxX, viewMaxY);
+    }
+
     @Override
     protected void end() {
-        batch.end();
-        frameBuffer.end();
-
-        if (tronShaderEnabled) {
-            tronShader.render(frameBuffer);
+        if (snapshotMode) {
+            if (currentSnapshot != null) {
+                currentSnapshot.stats.set(stats);
+                snapshots.publish();
+                currentSnapshot = null;
+            }
+            return;
         }
+        endScene(stats);
+    }
 
-        // Render final texture to screen
-        outBatch.begin();
-        Gdx.gl.glClearColor(0, 0, 0, 1);
-        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
-        outBatch.draw(fboRegion, 0, 0);
-        outBatch.end();
+    @Override
+    protected void dispose() {
+        staticLayer.dispose();
+        postProcess.dispose();
+        if (meshRenderer != null) {
+            meshRenderer.dispose();
+        }
     }
 
     @Override
     protected void inserted(int entityId) {
-        sortedEntityIds.add(entityId);
-        Collections.sort(sortedEntityIds, new Comparator<Integer>() {
-            @Override
-            public int compare(Integer o1, Integer o2) {
-                Visual v1 = vm.get(o1);
-                Visual v2 = vm.get(o2);
-                return v1.index.ordinal() - v2.index.ordinal();
-            }
-        });
+        if (entityId >= entityTextures.length) {
+            entityTextures = Arrays.copyOf(entityTextures, Math.max(entityTextures.length * 2, entityId + 1));
+            culled = Arrays.copyOf(culled, entityTextures.length);
+        }
+        culled[entityId] = false;
+        if (staticCachingEnabled && !snapshotMode && staticLayer.isStatic(entityId)) {
+            addStatic(entityId);
+        } else {
+            renderLayers.insert(entityId, vm.get(entityId).index);
+        }
     }
 
     @Override
     protected void removed(int entityId) {
-        ListIterator<Integer> iter = sortedEntityIds.listIterator();
+        staticLayer.remove(entityId);
+        renderLayers.remove(entityId);
+        entityTextures[entityId] = null;
+    }
 
-        while (iter.hasNext()) {
-            Integer id = iter.next();
-            if (id - entityId == 0) {
-                iter.remove();
+    /**
+     * Copies the ids of all rendered entities, in draw order, into the given bag.
+     * @param out bag to fill; it is cleared first
+     * @return the given bag
+     */
+    public IntBag getSortedEntityIds(IntBag out) {
+        out.setSize(0);
+        final int staticLayerOrdinal = RenderIndex.BACKGROUND.ordinal();
+        for (int layer = 0, layerCount = renderLayers.getLayerCount(); layer < layerCount; layer++) {
+            if (layer == staticLayerOrdinal) {
+                staticLayer.appendEntityIds(out);
             }
+            renderLayers.appendLayer(layer, out);
         }
+        return out;
     }
 
+    /**
+     * @deprecated allocates a boxed list on every call; use {@link #getSortedEntityIds(IntBag)}
+     */
+    @Deprecated
     public List<Integer> getSortedEntityIds() {
-        return Collections.unmodifiableList(sortedEntityIds);
+        IntBag ids = getSortedEntityIds(new IntBag(renderLayers.size() + staticLayer.size()));
+        ArrayList<Integer> list = new ArrayList<Integer>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            list.add(ids.get(i));
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Enables or disables camera-frustum culling. Culling is on by default; turn it off to debug missing sprites.
+     */
+    public void setCullingEnabled(boolean enabled) {
+        cullingEnabled = enabled;
+    }
+
+    public boolean isCullingEnabled() {
+        return cullingEnabled;
+    }
+
+    /**
+     * Has the entity checked for changes next frame even if its static BACKGROUND chunk is off screen.
+     * The movement, physics sync and transform hierarchy systems call it for the entities they move;
+     * call it after moving a static entity any other way, or changing its Visual, where it cannot be seen.
+     * Otherwise that is noticed only when its chunk comes into view or its turn comes in the sweep.
+     */
+    public void invalidateStatic(int entityId) {
+        staticLayer.invalidate(entityId);
+    }
+
+    /**
+     * Enables or disables caching of non-moving BACKGROUND entities. Enabled by default.
+     * Disabling moves all cached entities back to the dynamic batch path; re-enabling only affects entities added afterwards.
+     */
+    public void setStaticCachingEnabled(boolean enabled) {
+        staticCachingEnabled = enabled;
+        if (!enabled) {
+            staticLayer.clear(ejectedStatics);
+            insertDynamic(ejectedStatics);
+        }
+    }
+
+    /**
+     * In snapshot mode, processing the world only extracts the drawable state of every visible entity into a
+     * double-buffered snapshot and makes no GL calls, so the world may be processed off the GL thread.
+     * The GL thread then draws the latest snapshot with {@link #renderSnapshot()}.
+     * Static BACKGROUND caching needs GL and is turned off while in snapshot mode.
+     */
+    public void setSnapshotMode(boolean enabled) {
+        if (enabled && snapshots == null) {
+            snapshots = new RenderSnapshotBuffer();
+        }
+        if (enabled) {
+            setStaticCachingEnabled(false);
+        }
+        snapshotMode = enabled;
+    }
+
+    public boolean isSnapshotMode() {
+        return snapshotMode;
+    }
+
+    /**
+     * @return the snapshot double buffer, or null if snapshot mode has never been enabled
+     */
+    public RenderSnapshotBuffer getSnapshotBuffer() {
+        return snapshots;
+    }
+
+    /**
+     * Enables per-frame depth ordering by Position.y within a layer (higher y drawn first).
+     * Y-sorted layers are no longer grouped by texture.
+     */
+    public void setYSorted(RenderIndex layer, boolean enabled) {
+        ySortedLayers[layer.ordinal()] = enabled;
+        if (!enabled) {
+            // restore texture keys
+            IntBag entities = renderLayers.getLayer(layer.ordinal());
+            for (int i = 0, s = entities.size(); i < s; i++) {
+                int id = entities.get(i);
+                if (entityTextures[id] != null) {
+                    renderLayers.setSortKeyAt(layer.ordinal(), i, getTextureKey(entityTextures[id]));
+                }
+            }
+        }
+    }
+
+    public boolean isYSorted(RenderIndex layer) {
+        return ySortedLayers[layer.ordinal()];
+    }
+
+    /**
+     * Switches entity sprites between the default SpriteBatch path and the high-count mesh renderer,
+     * which rotates sprites on the GPU (instanced when GL30 is available). May be called between frames.
+     */
+    public void setHighCountRendering(boolean enabled) {
+        if (enabled && meshRenderer == null) {
+            meshRenderer = new MeshSpriteRenderer();
+        }
+        setSpriteRenderer(enabled ? meshRenderer : null);
+    }
+
+    /**
+     * Sets the backend entity sprites are submitted to; null restores the default SpriteBatch backend.
+     * May be called between frames.
+     */
+    public void setSpriteRenderer(SpriteRenderer renderer) {
+        spriteRenderer = renderer != null ? renderer : batchRenderer;
+    }
+
+    public boolean isHighCountRendering() {
+        return meshRenderer != null && spriteRenderer == meshRenderer;
+    }
+
+    /**
+     * @return counters for the most recently rendered frame. In snapshot mode, those of the last snapshot drawn,
+     *         which are written by renderSnapshot(); read them on the GL thread.
+     */
+    public RenderStats getStats() {
+        return snapshotMode ? snapshotStats : stats;
+    }
+
+    /**
+     * Appends an effect to the post-processing chain; it is disposed with the RenderSystem.
+     * While no effect is enabled (and the Tron shader is off) the scene is drawn straight to the screen.
+     */
+    public void addPostProcessEffect(PostProcessEffect effect) {
+        postProcess.add(effect);
+    }
+
+    public boolean removePostProcessEffect(PostProcessEffect effect) {
+        return postProcess.remove(effect);
+    }
+
+    public PostProcessChain getPostProcessChain() {
+        return postProcess;
+    }
+
+    /**
+     * Renders the world at an adaptive resolution between 50% and 100% of the screen to hold the given frame time,
+     * upscaling the result. UI drawn after the RenderSystem is unaffected.
+     * @param targetFrameTime seconds per frame to maintain, or 0 to disable and render at full resolution
+     */
+    public void setDynamicResolution(float targetFrameTime) {
+        if (targetFrameTime > 0) {
+            resolutionScale = new ResolutionScaleController(targetFrameTime);
+        } else {
+            resolutionScale = null;
+            postProcess.setSceneScale(1f);
+        }
+    }
+
+    /**
+     * @return fraction of the screen resolution the world is currently rendered at
+     */
+    public float getResolutionScale() {
+        return postProcess.getSceneScale();
     }
 
     /**
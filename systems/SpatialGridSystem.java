@@ -0,0 +1,102 @@
+package io.github.emergentorganization.emergent2dcore.systems;
+
+import com.artemis.Aspect;
+import com.artemis.BaseEntitySystem;
+import com.artemis.ComponentMapper;
+import com.artemis.annotations.Profile;
+import com.artemis.annotations.Wire;
+import com.artemis.utils.IntBag;
+import com.badlogic.gdx.math.Vector2;
+import io.github.emergentorganization.cellrpg.tools.profiling.EmergentProfiler;
+import io.github.emergentorganization.emergent2dcore.components.Position;
+import io.github.emergentorganization.emergent2dcore.components.WorldBounds;
+import io.github.emergentorganization.emergent2dcore.systems.spatial.SpatialHashGrid;
+
+/**
+ * Keeps every positioned entity in a SpatialHashGrid, for "what is near here" queries
+ * (distance to the player, picking, spawning). Entities with a WorldBounds are stored as their box,
+ * others as the point at their position. Entities are only re-bucketed when they move to another cell.
+ * Add it after the WorldBoundsSystem; queries then see this frame's positions.
+ */
+@Wire
+@Profile(using=EmergentProfiler.class, enabled=true)
+public class SpatialGridSystem extends BaseEntitySystem {
+    public static final float DEFAULT_CELL_SIZE = 5f;
+    public static final int DEFAULT_BUCKET_COUNT = 4096;
+
+    private ComponentMapper<Position> pm;
+    private ComponentMapper<WorldBounds> wbm;
+
+    private final SpatialHashGrid grid;
+
+    public SpatialGridSystem() {
+        this(DEFAULT_CELL_SIZE, DEFAULT_BUCKET_COUNT);
+    }
+
+    /**
+     * @param cellSize in world units; about the size of a typical query radius
+     * @param bucketCount about the number of occupied cells expected
+     */
+    public SpatialGridSystem(float cellSize, int bucketCount) {
+        super(Aspect.all(Position.class));
+        grid = new SpatialHashGrid(cellSize, bucketCount);
+    }
+
+    @Override
+    protected void inserted(int entityId) {
+        update(entityId);  // queryable before the next process
+    }
+
+    @Override
+    protected void removed(int entityId) {
+        grid.remove(entityId);
+    }
+
+    @Override
+    protected void processSystem() {
+        IntBag entities = getSubscription().getEntities();
+        int[] ids = entities.getData();
+        for (int i = 0, s = entities.size(); i < s; i++) {
+            update(ids[i]);
+        }
+    }
+
+    private void update(int entityId) {
+        if (wbm.has(entityId)) {
+            WorldBounds box = wbm.get(entityId);
+            grid.update(entityId, box.minX, box.minY, box.maxX, box.maxY);
+        } else {
+            Vector2 position = pm.get(entityId).position;
+            grid.update(entityId, position.x, position.y);
+        }
+    }
+
+    /**
+     * Adds the entities within the radius of the point to out.
+     * @return number of entities added
+     */
+    public int queryRadius(float x, float y, float radius, IntBag out) {
+        return grid.queryRadius(x, y, radius, out);
+    }
+
+    /**
+     * Adds the entities overlapping the box to out.
+     * @return number of entities added
+     */
+    public int queryRect(float minX, float minY, float maxX, float maxY, IntBag out) {
+        return grid.queryRect(minX, minY, maxX, maxY, out);
+    }
+
+    /**
+     * Adds up to k entities nearest to the point to out, nearest first.
+     * @param exclude entity to leave out, or -1
+     * @return number of entities added
+     */
+    public int queryNearest(float x, float y, int k, int exclude, IntBag out) {
+        return grid.queryNearest(x, y, k, exclude, out);
+    }
+
+    public SpatialHashGrid getGrid() {
+        return grid;
+    }
+}
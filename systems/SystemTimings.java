@@ -0,0 +1,74 @@
+package io.github.emergentorganization.emergent2dcore.systems;
+
+import com.artemis.BaseSystem;
+import com.artemis.utils.Bag;
+
+import java.util.Arrays;
+
+/**
+ * Wall-clock time spent in each system, accumulated by an invocation strategy
+ * (TimingInvocationStrategy, or FixedStepInvocationStrategy.setTimings). Indexed like the world's system bag.
+ */
+public class SystemTimings {
+    private String[] names = new String[0];
+    private long[] nanos = new long[0];
+    private long[] runs = new long[0];
+
+    void add(Bag<BaseSystem> systems, int index, long elapsedNanos) {
+        if (index >= nanos.length) {
+            int length = systems.size();
+            names = Arrays.copyOf(names, length);
+            nanos = Arrays.copyOf(nanos, length);
+            runs = Arrays.copyOf(runs, length);
+        }
+        if (names[index] == null) {
+            names[index] = systems.get(index).getClass().getSimpleName();
+        }
+        nanos[index] += elapsedNanos;
+        runs[index]++;
+    }
+
+    public void reset() {
+        Arrays.fill(nanos, 0);
+        Arrays.fill(runs, 0);
+    }
+
+    public int getSystemCount() {
+        return nanos.length;
+    }
+
+    public String getName(int index) {
+        return names[index];
+    }
+
+    public long getNanos(int index) {
+        return nanos[index];
+    }
+
+    public long getRuns(int index) {
+        return runs[index];
+    }
+
+    public long getTotalNanos() {
+        long total = 0;
+        for (long n : nanos) {
+            total += n;
+        }
+        return total;
+    }
+
+    /**
+     * @return one line per system that ran: total ms, share of the total, and mean microseconds per run
+     */
+    public String report() {
+        long total = Math.max(1, getTotalNanos());
+        StringBuilder report = new StringBuilder();
+        for (int i = 0; i < nanos.length; i++) {
+            if (runs[i] > 0) {
+                report.append(String.format("%-32s %10.1f ms %5.1f%% %9.1f us/run%n",
+                        names[i], nanos[i] / 1e6, 100.0 * nanos[i] / total, nanos[i] / 1e3 / runs[i]));
+            }
+        }
+        return report.toString();
+    }
+}
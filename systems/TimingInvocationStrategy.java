@@ -0,0 +1,35 @@
+package io.github.emergentorganization.emergent2dcore.systems;
+
+import com.artemis.BaseSystem;
+import com.artemis.SystemInvocationStrategy;
+import com.artemis.utils.Bag;
+
+/**
+ * Runs every system once per world.process(), like the default strategy, and records how long each took.
+ */
+public class TimingInvocationStrategy extends SystemInvocationStrategy {
+    private final SystemTimings timings;
+
+    public TimingInvocationStrategy() {
+        this(new SystemTimings());
+    }
+
+    public TimingInvocationStrategy(SystemTimings timings) {
+        this.timings = timings;
+    }
+
+    @Override
+    protected void process(Bag<BaseSystem> systems) {
+        Object[] data = systems.getData();
+        for (int i = 0, s = systems.size(); i < s; i++) {
+            long start = System.nanoTime();
+            ((BaseSystem) data[i]).process();
+            timings.add(systems, i, System.nanoTime() - start);
+            updateEntityStates();
+        }
+    }
+
+    public SystemTimings getTimings() {
+        return timings;
+    }
+}
@@ -0,0 +1,258 @@
+package io.github.emergentorganization.emergent2dcore.systems;
+
+import com.artemis.Aspect;
+import com.artemis.BaseEntitySystem;
+import com.artemis.ComponentMapper;
+import com.artemis.EntitySubscription;
+import com.artemis.annotations.Profile;
+import com.artemis.annotations.Wire;
+import com.artemis.utils.IntBag;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+import io.github.emergentorganization.cellrpg.core.entityfactory.EntityFactory;
+import io.github.emergentorganization.cellrpg.tools.profiling.EmergentProfiler;
+import io.github.emergentorganization.emergent2dcore.components.ParentTransform;
+import io.github.emergentorganization.emergent2dcore.components.Position;
+import io.github.emergentorganization.emergent2dcore.components.Rotation;
+import io.github.emergentorganization.emergent2dcore.components.Scale;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Sets the transform of entities with a ParentTransform from their parent's, parents before children,
+ * so that whole chains (e.g. a turret on a ship on a carrier) follow in one pass.
+ *
+ * Components are mutated directly by other systems, so there are no setters to raise dirty flags.
+ * Instead each child remembers the parent transform and local offset it was last placed with, and the
+ * transform it was given; when none of these has changed the child is skipped. Its own children are
+ * still checked, each against its own parent.
+ * Add it after the movement systems.
+ */
+@Wire
+@Profile(using=EmergentProfiler.class, enabled=true)
+public class TransformHierarchySystem extends BaseEntitySystem {
+    private final Logger logger = LogManager.getLogger(getClass());
+
+    private ComponentMapper<ParentTransform> ptm;
+    private ComponentMapper<Position> pm;
+    private ComponentMapper<Rotation> rm;
+    private ComponentMapper<Scale> sm;
+    @Wire(failOnNull = false)
+    private RenderSystem renderSystem;  // told of moved children, which may be cached as static
+
+    // children ordered so every parent comes before its children
+    private final IntBag ordered = new IntBag();
+    private boolean orderDirty = true;
+    private final BitSet removedEntities = new BitSet();  // by entity id, since the last frame
+
+    // per child, by entity id: the parent and transforms it was last placed with
+    private int[] placedParent = new int[128];
+    // parent x, y, angle, scale, then offset x, y, angle, scale, then the child's resulting x, y, angle, scale
+    private static final int PLACED_STRIDE = 12;
+    private float[] placed = new float[128 * PLACED_STRIDE];
+    // per child: its parent when the order was built, and its depth below the nearest root
+    private int[] orderedParent = new int[128];
+    private int[] depth = new int[128];
+
+    private int updated;
+    private int skipped;
+
+    public TransformHierarchySystem() {
+        super(Aspect.all(ParentTransform.class, Position.class));
+    }
+
+    @Override
+    protected void initialize() {
+        super.initialize();
+        // parents leaving the world detach or delete their children
+        world.getAspectSubscriptionManager().get(Aspect.all(Position.class))
+                .addSubscriptionListener(new EntitySubscription.SubscriptionListener() {
+                    @Override
+                    public void inserted(IntBag entities) {
+                    }
+
+                    @Override
+                    public void removed(IntBag entities) {
+                        for (int i = 0, s = entities.size(); i < s; i++) {
+                            removedEntities.set(entities.get(i));
+                        }
+                        orderDirty = true;
+                    }
+                });
+    }
+
+    @Override
+    protected void inserted(int entityId) {
+        if (entityId >= placedParent.length) {
+            int length = Math.max(placedParent.length * 2, entityId + 1);
+            placedParent = Arrays.copyOf(placedParent, length);
+            orderedParent = Arrays.copyOf(orderedParent, length);
+            depth = Arrays.copyOf(depth, length);
+            placed = Arrays.copyOf(placed, length * PLACED_STRIDE);
+        }
+        placedParent[entityId] = ParentTransform.NO_PARENT;  // never placed
+        orderDirty = true;
+    }
+
+    @Override
+    protected void removed(int entityId) {
+        orderDirty = true;
+    }
+
+    @Override
+    protected void processSystem() {
+        if (!removedEntities.isEmpty()) {
+            releaseOrphans();
+        }
+        if (!orderDirty) {
+            // a re-parented child may now have to come after its new parent
+            int[] ids = ordered.getData();
+            for (int i = 0, s = ordered.size(); i < s; i++) {
+                if (ptm.get(ids[i]).parent != orderedParent[ids[i]]) {
+                    orderDirty = true;
+                    break;
+                }
+            }
+        }
+        if (orderDirty) {
+            rebuildOrder();
+        }
+
+        updated = 0;
+        skipped = 0;
+        int[] ids = ordered.getData();
+        for (int i = 0, s = ordered.size(); i < s; i++) {
+            place(ids[i]);
+        }
+    }
+
+    private void place(int child) {
+        ParentTransform pt = ptm.get(child);
+        int parent = pt.parent;
+        if (parent == ParentTransform.NO_PARENT || !pm.has(parent)) {
+            return;
+        }
+        Vector2 parentPosition = pm.get(parent).position;
+        float parentAngle = rm.has(parent) ? rm.get(parent).angle : 0;
+        float parentScale = sm.has(parent) ? sm.get(parent).scale : EntityFactory.SCALE_WORLD_TO_BOX;
+
+        Vector2 position = pm.get(child).position;
+        Rotation rotation = rm.has(child) ? rm.get(child) : null;
+        Scale scale = sm.has(child) ? sm.get(child) : null;
+        int base = child * PLACED_STRIDE;
+        if (placedParent[child] == parent
+                && placed[base] == parentPosition.x && placed[base + 1] == parentPosition.y
+                && placed[base + 2] == parentAngle && placed[base + 3] == parentScale
+                && placed[base + 4] == pt.offset.x && placed[base + 5] == pt.offset.y
+                && placed[base + 6] == pt.angle && placed[base + 7] == pt.scale
+                && placed[base + 8] == position.x && placed[base + 9] == position.y
+                && (rotation == null || placed[base + 10] == rotation.angle)
+                && (scale == null || placed[base + 11] == scale.scale)) {
+            skipped++;  // neither its parent nor anything else moved it since it was placed
+            return;
+        }
+        placedParent[child] = parent;
+        placed[base] = parentPosition.x;
+        placed[base + 1] = parentPosition.y;
+        placed[base + 2] = parentAngle;
+        placed[base + 3] = parentScale;
+        placed[base + 4] = pt.offset.x;
+        placed[base + 5] = pt.offset.y;
+        placed[base + 6] = pt.angle;
+        placed[base + 7] = pt.scale;
+
+        // offsets are given at the default world scale, like Bounds
+        float relativeScale = parentScale / EntityFactory.SCALE_WORLD_TO_BOX;
+        float ox = pt.offset.x * relativeScale;
+        float oy = pt.offset.y * relativeScale;
+        if (parentAngle != 0) {
+            float cos = MathUtils.cosDeg(parentAngle);
+            float sin = MathUtils.sinDeg(parentAngle);
+            float rotatedX = ox * cos - oy * sin;
+            oy = ox * sin + oy * cos;
+            ox = rotatedX;
+        }
+        position.set(parentPosition.x + ox, parentPosition.y + oy);
+        placed[base + 8] = position.x;
+        placed[base + 9] = position.y;
+        if (rotation != null) {
+            rotation.angle = parentAngle + pt.angle;
+            placed[base + 10] = rotation.angle;
+        }
+        if (scale != null) {
+            scale.scale = parentScale * pt.scale;
+            placed[base + 11] = scale.scale;
+        }
+        if (renderSystem != null) {
+            renderSystem.invalidateStatic(child);
+        }
+        updated++;
+    }
+
+    private void releaseOrphans() {
+        IntBag children = getSubscription().getEntities();
+        for (int i = 0, s = children.size(); i < s; i++) {
+            int child = children.get(i);
+            ParentTransform pt = ptm.get(child);
+            if (pt.parent != ParentTransform.NO_PARENT && removedEntities.get(pt.parent)) {
+                if (pt.deleteWithParent) {
+                    world.delete(child);
+                } else {
+                    pt.parent = ParentTransform.NO_PARENT;  // stays where it was
+                }
+            }
+        }
+        removedEntities.clear();
+    }
+
+    private void rebuildOrder() {
+        IntBag children = getSubscription().getEntities();
+        int maxDepth = 0;
+        for (int i = 0, s = children.size(); i < s; i++) {
+            int child = children.get(i);
+            int d = 0;
+            int ancestor = ptm.get(child).parent;
+            while (ancestor != ParentTransform.NO_PARENT && ptm.has(ancestor)) {
+                if (++d > s) {
+                    logger.error("ParentTransform cycle through ent#" + child + "; detaching it");
+                    ptm.get(child).parent = ParentTransform.NO_PARENT;
+                    d = 0;
+                    break;
+                }
+                ancestor = ptm.get(ancestor).parent;
+            }
+            orderedParent[child] = ptm.get(child).parent;
+            depth[child] = d;
+            maxDepth = Math.max(maxDepth, d);
+        }
+
+        // counting sort by depth
+        ordered.setSize(0);
+        for (int d = 0; d <= maxDepth; d++) {
+            for (int i = 0, s = children.size(); i < s; i++) {
+                int child = children.get(i);
+                if (depth[child] == d) {
+                    ordered.add(child);
+                }
+            }
+        }
+        orderDirty = false;
+    }
+
+    /**
+     * @return children placed in the last frame
+     */
+    public int getUpdatedCount() {
+        return updated;
+    }
+
+    /**
+     * @return children skipped in the last frame because neither they nor their parent moved
+     */
+    public int getSkippedCount() {
+        return skipped;
+    }
+}
@@ -0,0 +1,99 @@
+package io.github.emergentorganization.emergent2dcore.systems;
+
+import com.artemis.Aspect;
+import com.artemis.BaseEntitySystem;
+import com.artemis.ComponentMapper;
+import com.artemis.annotations.Profile;
+import com.artemis.annotations.Wire;
+import com.artemis.utils.IntBag;
+import com.badlogic.gdx.math.Vector2;
+import io.github.emergentorganization.cellrpg.tools.profiling.EmergentProfiler;
+import io.github.emergentorganization.emergent2dcore.components.Position;
+import io.github.emergentorganization.emergent2dcore.components.Rotation;
+
+import java.util.Arrays;
+
+/**
+ * Records every entity's position and rotation from before the current simulation tick, so the RenderSystem can
+ * draw entities interpolated between the previous and the current tick (see FixedStepInvocationStrategy).
+ * Must be the first simulation system so it captures the state before anything moves.
+ * The state is kept in primitive arrays indexed by entity id; capturing allocates nothing.
+ * Without a fixed-step strategy the interpolation factor stays 1 and entities are drawn where they are.
+ */
+@Wire
+@Profile(using=EmergentProfiler.class, enabled=true)
+public class TransformHistorySystem extends BaseEntitySystem {
+    private ComponentMapper<Position> pm;
+    private ComponentMapper<Rotation> rm;
+
+    private float[] previousX = new float[128];
+    private float[] previousY = new float[128];
+    private float[] previousAngle = new float[128];
+    private float alpha = 1;
+
+    public TransformHistorySystem() {
+        super(Aspect.all(Position.class));
+    }
+
+    @Override
+    protected void processSystem() {
+        IntBag entities = getSubscription().getEntities();
+        int[] ids = entities.getData();
+        for (int i = 0, s = entities.size(); i < s; i++) {
+            capture(ids[i]);
+        }
+    }
+
+    @Override
+    protected void inserted(int entityId) {
+        if (entityId >= previousX.length) {
+            int length = Math.max(previousX.length * 2, entityId + 1);
+            previousX = Arrays.copyOf(previousX, length);
+            previousY = Arrays.copyOf(previousY, length);
+            previousAngle = Arrays.copyOf(previousAngle, length);
+        }
+        capture(entityId);  // new entities are not interpolated from wherever the last owner of the id was
+    }
+
+    /**
+     * Forgets the entity's previous state, so a teleported entity is not drawn sliding to its new position.
+     */
+    public void capture(int entityId) {
+        Vector2 position = pm.get(entityId).position;
+        previousX[entityId] = position.x;
+        previousY[entityId] = position.y;
+        previousAngle[entityId] = rm.has(entityId) ? rm.get(entityId).angle : 0;
+    }
+
+    void setAlpha(float alpha) {
+        this.alpha = alpha;
+    }
+
+    /**
+     * @return fraction of the way from the previous to the current tick to draw at
+     */
+    public float getAlpha() {
+        return alpha;
+    }
+
+    public float interpolateX(int entityId, float currentX) {
+        return previousX[entityId] + (currentX - previousX[entityId]) * alpha;
+    }
+
+    public float interpolateY(int entityId, float currentY) {
+        return previousY[entityId] + (currentY - previousY[entityId]) * alpha;
+    }
+
+    /**
+     * Interpolates along the shorter way around, so 350 to 10 degrees turns through 0.
+     */
+    public float interpolateAngle(int entityId, float currentAngle) {
+        float difference = (currentAngle - previousAngle[entityId]) % 360f;
+        if (difference > 180f) {
+            difference -= 360f;
+        } else if (difference < -180f) {
+            difference += 360f;
+        }
+        return currentAngle - difference * (1 - alpha);
+    }
+}
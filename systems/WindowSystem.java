@@ -17,11 +17,17 @@ import io.github.emergentorganization.cellrpg.tools.profiling.EmergentProfiler;
 
 @Wire
 @Profile(using=EmergentProfiler.class, enabled=true)
-public class WindowSystem extends BaseSystem {
+public class WindowSystem extends BaseSystem implements FrameSystem {
     private final Stage stage;
     private final Batch gameBatch;
     private RenderSystem renderSystem;
     private MovementSystem movementSystem;
+    @Wire(failOnNull = false)
+    private PhysicsSyncSystem physicsSyncSystem;
+    @Wire(failOnNull = false)
+    private InputMovementSystem inputMovementSystem;
+    @Wire(failOnNull = false)
+    private EquipmentSystem equipmentSystem;
     private InputSystem inputSystem;
     private boolean isPaused = false;
     private VisWindow pauseWindow;
@@ -84,6 +90,15 @@ public class WindowSystem extends BaseSystem {
     private void enableSystems(boolean paused) {
         renderSystem.setEnabled(paused);
         movementSystem.setEnabled(paused);
+        if (physicsSyncSystem != null) {
+            physicsSyncSystem.setEnabled(paused);
+        }
+        if (inputMovementSystem != null) {
+            inputMovementSystem.setEnabled(paused);
+        }
+        if (equipmentSystem != null) {
+            equipmentSystem.setEnabled(paused);
+        }
         inputSystem.setEnabled(paused);
     }
 
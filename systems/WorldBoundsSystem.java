@@ -0,0 +1,130 @@
+package io.github.emergentorganization.emergent2dcore.systems;
+
+import com.artemis.Aspect;
+import com.artemis.BaseEntitySystem;
+import com.artemis.ComponentMapper;
+import com.artemis.annotations.Profile;
+import com.artemis.annotations.Wire;
+import com.artemis.utils.IntBag;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+import io.github.emergentorganization.cellrpg.core.entityfactory.EntityFactory;
+import io.github.emergentorganization.cellrpg.tools.profiling.EmergentProfiler;
+import io.github.emergentorganization.emergent2dcore.components.Bounds;
+import io.github.emergentorganization.emergent2dcore.components.Position;
+import io.github.emergentorganization.emergent2dcore.components.Rotation;
+import io.github.emergentorganization.emergent2dcore.components.Scale;
+import io.github.emergentorganization.emergent2dcore.components.WorldBounds;
+
+import java.util.Arrays;
+
+/**
+ * Gives every entity with Position and Bounds a WorldBounds and keeps it current.
+ * The inputs each box was computed from are remembered, and the box is only recomputed when one changed,
+ * so entities standing still cost a few comparisons per frame.
+ * Add it after the systems that move entities (including the TransformHierarchySystem)
+ * and before the camera, culling and picking code reading the boxes.
+ */
+@Wire
+@Profile(using=EmergentProfiler.class, enabled=true)
+public class WorldBoundsSystem extends BaseEntitySystem {
+    private ComponentMapper<Position> pm;
+    private ComponentMapper<Bounds> bm;
+    private ComponentMapper<Rotation> rm;
+    private ComponentMapper<Scale> sm;
+    private ComponentMapper<WorldBounds> wbm;
+
+    // per entity id: x, y, angle, scale, width, height the box was computed from
+    private static final int INPUT_STRIDE = 6;
+    private float[] inputs = new float[128 * INPUT_STRIDE];
+
+    private int recomputed;
+
+    public WorldBoundsSystem() {
+        super(Aspect.all(Position.class, Bounds.class));
+    }
+
+    @Override
+    protected void inserted(int entityId) {
+        if ((entityId + 1) * INPUT_STRIDE > inputs.length) {
+            inputs = Arrays.copyOf(inputs, Math.max(inputs.length * 2, (entityId + 1) * INPUT_STRIDE));
+        }
+        WorldBounds box = wbm.has(entityId) ? wbm.get(entityId) : wbm.create(entityId);
+        inputs[entityId * INPUT_STRIDE] = Float.NaN;  // never equal, so the box is computed now
+        update(entityId, box);
+    }
+
+    @Override
+    protected void removed(int entityId) {
+        if (world.getEntityManager().isActive(entityId) && wbm.has(entityId)) {
+            wbm.remove(entityId);  // lost its Bounds; deleted entities lose their components anyway
+        }
+    }
+
+    @Override
+    protected void processSystem() {
+        recomputed = 0;
+        IntBag entities = getSubscription().getEntities();
+        int[] ids = entities.getData();
+        for (int i = 0, s = entities.size(); i < s; i++) {
+            update(ids[i], wbm.get(ids[i]));
+        }
+    }
+
+    private void update(int entityId, WorldBounds box) {
+        Vector2 position = pm.get(entityId).position;
+        Bounds bounds = bm.get(entityId);
+        float angle = rm.has(entityId) ? rm.get(entityId).angle : 0;
+        float scale = sm.has(entityId) ? sm.get(entityId).scale : EntityFactory.SCALE_WORLD_TO_BOX;
+
+        int base = entityId * INPUT_STRIDE;
+        if (inputs[base] == position.x && inputs[base + 1] == position.y && inputs[base + 2] == angle
+                && inputs[base + 3] == scale && inputs[base + 4] == bounds.width && inputs[base + 5] == bounds.height) {
+            return;
+        }
+        inputs[base] = position.x;
+        inputs[base + 1] = position.y;
+        inputs[base + 2] = angle;
+        inputs[base + 3] = scale;
+        inputs[base + 4] = bounds.width;
+        inputs[base + 5] = bounds.height;
+        compute(position.x, position.y, angle, scale, bounds.width, bounds.height, box);
+        recomputed++;
+    }
+
+    /**
+     * Computes the box around a width x height rectangle with its bottom-left corner at x, y,
+     * rotated about that corner and scaled relative to the default world scale, the way the RenderSystem draws it.
+     */
+    public static void compute(float x, float y, float angle, float scale, float width, float height,
+                               WorldBounds out) {
+        float boundsScale = scale / EntityFactory.SCALE_WORLD_TO_BOX;
+        width *= boundsScale;
+        height *= boundsScale;
+
+        float minX = 0, maxX = width, minY = 0, maxY = height;
+        if (angle != 0) {
+            float cos = MathUtils.cosDeg(angle);
+            float sin = MathUtils.sinDeg(angle);
+            float wx = width * cos, wy = width * sin;    // rotated width vector
+            float hx = -height * sin, hy = height * cos; // rotated height vector
+            minX = Math.min(0, wx) + Math.min(0, hx);
+            maxX = Math.max(0, wx) + Math.max(0, hx);
+            minY = Math.min(0, wy) + Math.min(0, hy);
+            maxY = Math.max(0, wy) + Math.max(0, hy);
+        }
+        out.minX = x + minX;
+        out.maxX = x + maxX;
+        out.minY = y + minY;
+        out.maxY = y + maxY;
+        // the box around a rectangle is centered on it
+        out.center.set((out.minX + out.maxX) / 2f, (out.minY + out.maxY) / 2f);
+    }
+
+    /**
+     * @return boxes recomputed in the last frame
+     */
+    public int getRecomputedCount() {
+        return recomputed;
+    }
+}
@@ -0,0 +1,106 @@
+package io.github.emergentorganization.emergent2dcore.systems.camera;
+
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.math.Vector2;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measures time and allocation per call of each CameraFollowStrategy, next to the allocating
+ * leading follow the CameraSystem used before (Vector2 copies plus a nor() of the velocity).
+ * Warmup and measurement iterations are run as in JMH; run with main(). Allocation is only reported
+ * on JVMs which expose com.sun.management.ThreadMXBean. In a loop this small the JIT can remove the legacy
+ * allocations by escape analysis; run with -XX:-DoEscapeAnalysis to see what they cost in the real frame loop.
+ * The legacy version is given cached settings, so the Preferences lookups it also did are not measured.
+ */
+public class CameraFollowBenchmark {
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int ITERATIONS = 10;
+    private static final int OPS_PER_ITERATION = 1000000;
+    private static final float DELTA = 1 / 60f;
+    private static final int PATH_POINTS = 1024;  // target path is precomputed so trigonometry is not measured
+
+    private static final float[] pathX = new float[PATH_POINTS];
+    private static final float[] pathY = new float[PATH_POINTS];
+    private static final float[] pathVelocityX = new float[PATH_POINTS];
+    private static final float[] pathVelocityY = new float[PATH_POINTS];
+
+    // keeps results reachable so the JIT cannot drop the work
+    private static float sink;
+
+    public static void main(String[] args) {
+        // target circling the origin
+        for (int i = 0; i < PATH_POINTS; i++) {
+            double angle = Math.PI * 2 * i / PATH_POINTS;
+            pathX[i] = (float) Math.cos(angle) * 50;
+            pathY[i] = (float) Math.sin(angle) * 50;
+            pathVelocityX[i] = -(float) Math.sin(angle) * 5;
+            pathVelocityY[i] = (float) Math.cos(angle) * 5;
+        }
+        CameraSettings settings = new CameraSettings();
+        run("legacy leading (allocating)", null, settings);
+        run("simple", new SimpleFollow(), settings);
+        run("leading", new LeadingFollow(), settings);
+        run("deadzone", new DeadzoneFollow(), settings);
+        run("smoothed", new SmoothedFollow(), settings);
+    }
+
+    private static void run(String name, CameraFollowStrategy strategy, CameraSettings settings) {
+        OrthographicCamera camera = new OrthographicCamera(1280, 720);
+        Vector2 target = new Vector2();
+        Vector2 velocity = new Vector2();
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            iteration(strategy, camera, target, velocity, settings);
+        }
+        long bytesBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            iteration(strategy, camera, target, velocity, settings);
+        }
+        double nsPerOp = (System.nanoTime() - start) / (double) (ITERATIONS * OPS_PER_ITERATION);
+        long bytes = allocatedBytes() - bytesBefore;
+        String allocation = bytesBefore < 0 ? "n/a" : String.format("%.1f", bytes / (double) (ITERATIONS * OPS_PER_ITERATION));
+        System.out.printf("%-28s %8.2f ns/op %8s B/op%n", name, nsPerOp, allocation);
+        sink += camera.position.x;
+    }
+
+    private static void iteration(CameraFollowStrategy strategy, OrthographicCamera camera, Vector2 target,
+                                  Vector2 velocity, CameraSettings settings) {
+        for (int op = 0; op < OPS_PER_ITERATION; op++) {
+            int point = op & (PATH_POINTS - 1);
+            velocity.set(pathVelocityX[point], pathVelocityY[point]);
+            target.set(pathX[point], pathY[point]);
+            if (strategy == null) {
+                legacyLeading(camera, target, velocity, settings);
+            } else {
+                strategy.follow(camera, target.x, target.y, velocity, settings, DELTA);
+            }
+        }
+    }
+
+    private static void legacyLeading(OrthographicCamera camera, Vector2 target, Vector2 velocity,
+                                      CameraSettings settings) {
+        final long deltaTime = (long) (DELTA * 1000);
+        Vector2 pos = target.cpy();  // stands in for Position.getCenter()
+        Vector2 cameraLoc = new Vector2(camera.position.x, camera.position.y);
+        Vector2 offset = new Vector2(pos);
+        offset.sub(camera.position.x, camera.position.y);
+        offset.add(velocity.nor().scl(settings.lead));
+        if (Math.abs(offset.x) > settings.closeEnough || Math.abs(offset.y) > settings.closeEnough) {
+            final float maxOffset = Math.min(camera.viewportWidth, camera.viewportHeight) / 2 - settings.edgeMargin;
+            final float gain = deltaTime * velocity.len() / maxOffset;
+            cameraLoc.add(offset.scl(gain));
+            camera.position.set(cameraLoc, 0);
+        }
+    }
+
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,20 @@
+package io.github.emergentorganization.emergent2dcore.systems.camera;
+
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * Moves the camera towards the entity it follows. Called once per frame per followed entity;
+ * implementations must not allocate or modify the given velocity.
+ */
+public interface CameraFollowStrategy {
+
+    /**
+     * @param targetX center of the followed entity
+     * @param targetY center of the followed entity
+     * @param velocity velocity of the followed entity, read only
+     * @param delta seconds since the last frame
+     */
+    void follow(OrthographicCamera camera, float targetX, float targetY, Vector2 velocity,
+                CameraSettings settings, float delta);
+}
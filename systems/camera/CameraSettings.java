@@ -0,0 +1,37 @@
+package io.github.emergentorganization.emergent2dcore.systems.camera;
+
+import com.badlogic.gdx.Preferences;
+import io.github.emergentorganization.cellrpg.core.entityfactory.EntityFactory;
+import io.github.emergentorganization.cellrpg.tools.GameSettings;
+
+/**
+ * Camera preferences, read once and cached so the per-frame path never touches Preferences.
+ * Call load() again after the preferences change.
+ */
+public class CameraSettings {
+    // values of GameSettings.KEY_CAM_FOLLOW_METHOD
+    public static final int SIMPLE = 0;
+    public static final int LEADING = 1;
+    public static final int DEADZONE = 2;
+    public static final int SMOOTHED = 3;
+
+    // preference keys of the settings only the follow strategies here use, next to those in GameSettings
+    public static final String KEY_DEADZONE = "camDeadzone";
+    public static final String KEY_SMOOTHING_TIME = "camSmoothingTime";
+
+    public int followMethod = SIMPLE;
+    public float edgeMargin = 10 * EntityFactory.SCALE_WORLD_TO_BOX;
+    public float closeEnough = 4 * EntityFactory.SCALE_WORLD_TO_BOX;  // offsets below this are not corrected
+    public float lead = 20 * EntityFactory.SCALE_WORLD_TO_BOX;  // distance to look ahead in the direction of travel
+    public float deadzone = 0.3f;  // fraction of the half view the target may move in without moving the camera
+    public float smoothingTime = 0.2f;  // seconds for the smoothed camera to close ~63% of the distance
+
+    public void load(Preferences prefs) {
+        followMethod = prefs.getInteger(GameSettings.KEY_CAM_FOLLOW_METHOD, SIMPLE);
+        edgeMargin = prefs.getFloat(GameSettings.KEY_CAM_EDGE_MARGIN, 10) * EntityFactory.SCALE_WORLD_TO_BOX;
+        closeEnough = prefs.getFloat(GameSettings.KEY_CAM_NEARNESS_CUTOFF, 4) * EntityFactory.SCALE_WORLD_TO_BOX;
+        lead = prefs.getFloat(GameSettings.KEY_CAM_LEAD, 20) * EntityFactory.SCALE_WORLD_TO_BOX;
+        deadzone = prefs.getFloat(KEY_DEADZONE, 0.3f);
+        smoothingTime = prefs.getFloat(KEY_SMOOTHING_TIME, 0.2f);
+    }
+}
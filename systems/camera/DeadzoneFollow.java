@@ -0,0 +1,31 @@
+package io.github.emergentorganization.emergent2dcore.systems.camera;
+
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * Leaves the camera still while the entity moves within a box around the view center,
+ * and pushes it along once the entity reaches the edge of the box.
+ */
+public class DeadzoneFollow implements CameraFollowStrategy {
+
+    @Override
+    public void follow(OrthographicCamera camera, float targetX, float targetY, Vector2 velocity,
+                       CameraSettings settings, float delta) {
+        float halfWidth = camera.viewportWidth * camera.zoom / 2f * settings.deadzone;
+        float halfHeight = camera.viewportHeight * camera.zoom / 2f * settings.deadzone;
+        float offsetX = targetX - camera.position.x;
+        float offsetY = targetY - camera.position.y;
+
+        if (offsetX > halfWidth) {
+            camera.position.x += offsetX - halfWidth;
+        } else if (offsetX < -halfWidth) {
+            camera.position.x += offsetX + halfWidth;
+        }
+        if (offsetY > halfHeight) {
+            camera.position.y += offsetY - halfHeight;
+        } else if (offsetY < -halfHeight) {
+            camera.position.y += offsetY + halfHeight;
+        }
+    }
+}
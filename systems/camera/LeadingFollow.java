@@ -0,0 +1,31 @@
+package io.github.emergentorganization.emergent2dcore.systems.camera;
+
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * Follows the entity, attempting to lead it in the direction of travel.
+ */
+public class LeadingFollow implements CameraFollowStrategy {
+
+    @Override
+    public void follow(OrthographicCamera camera, float targetX, float targetY, Vector2 velocity,
+                       CameraSettings settings, float delta) {
+        float offsetX = targetX - camera.position.x;
+        float offsetY = targetY - camera.position.y;
+
+        float speed = velocity.len();
+        if (speed > 0) {
+            offsetX += velocity.x / speed * settings.lead;
+            offsetY += velocity.y / speed * settings.lead;
+        }
+
+        if (Math.abs(offsetX) > settings.closeEnough || Math.abs(offsetY) > settings.closeEnough) {
+            // max player-camera dist
+            final float maxOffset = Math.min(camera.viewportWidth, camera.viewportHeight) / 2 - settings.edgeMargin;
+            // keeps the per-millisecond gain the camera was tuned with, clamped so it never overshoots
+            final float gain = maxOffset > 0 ? Math.min(1, delta * 1000f / maxOffset) : 1;
+            camera.position.add(offsetX * gain, offsetY * gain, 0);
+        }
+    }
+}
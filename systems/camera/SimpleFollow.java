@@ -0,0 +1,16 @@
+package io.github.emergentorganization.emergent2dcore.systems.camera;
+
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * Stays exactly above the followed entity. No frills, max performance.
+ */
+public class SimpleFollow implements CameraFollowStrategy {
+
+    @Override
+    public void follow(OrthographicCamera camera, float targetX, float targetY, Vector2 velocity,
+                       CameraSettings settings, float delta) {
+        camera.position.set(targetX, targetY, 0);
+    }
+}
@@ -0,0 +1,23 @@
+package io.github.emergentorganization.emergent2dcore.systems.camera;
+
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * Eases the camera towards the entity. The approach is exponential in time,
+ * so the camera moves the same way regardless of the frame rate.
+ */
+public class SmoothedFollow implements CameraFollowStrategy {
+
+    @Override
+    public void follow(OrthographicCamera camera, float targetX, float targetY, Vector2 velocity,
+                       CameraSettings settings, float delta) {
+        if (settings.smoothingTime <= 0) {
+            camera.position.set(targetX, targetY, 0);
+            return;
+        }
+        float t = 1f - (float) Math.exp(-delta / settings.smoothingTime);
+        camera.position.x += (targetX - camera.position.x) * t;
+        camera.position.y += (targetY - camera.position.y) * t;
+    }
+}
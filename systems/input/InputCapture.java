@@ -0,0 +1,113 @@
+package io.github.emergentorganization.emergent2dcore.systems.input;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.InputMultiplexer;
+import com.badlogic.gdx.InputProcessor;
+
+/**
+ * Copies libGDX input events into an InputEventRing as they arrive. It never consumes an event,
+ * so UI and other processors behind it still receive everything.
+ */
+public class InputCapture implements InputProcessor {
+    private final InputEventRing ring;
+    private InputProcessor previous;
+    private InputProcessor installedProcessor;  // this, or the multiplexer putting it in front of previous
+    private boolean installed = false;
+
+    public InputCapture(InputEventRing ring) {
+        this.ring = ring;
+    }
+
+    /**
+     * Puts this in front of the current input processor.
+     */
+    public void install() {
+        if (installed) {
+            return;
+        }
+        wrapCurrent();
+        installed = true;
+    }
+
+    /**
+     * Puts this back in front if the input processor was replaced since install(), e.g. by a screen
+     * setting its stage. Cheap enough to call every frame.
+     */
+    public void ensureInstalled() {
+        if (installed && Gdx.input.getInputProcessor() != installedProcessor) {
+            wrapCurrent();
+        }
+    }
+
+    /**
+     * Restores the input processor replaced by install(), unless it has since been replaced by another.
+     */
+    public void uninstall() {
+        if (installed) {
+            if (Gdx.input.getInputProcessor() == installedProcessor) {
+                Gdx.input.setInputProcessor(previous);
+            }
+            previous = null;
+            installedProcessor = null;
+            installed = false;
+        }
+    }
+
+    private void wrapCurrent() {
+        previous = Gdx.input.getInputProcessor();
+        if (previous == null) {
+            installedProcessor = this;
+        } else {
+            installedProcessor = new InputMultiplexer(this, previous);
+        }
+        Gdx.input.setInputProcessor(installedProcessor);
+    }
+
+    @Override
+    public boolean keyDown(int keycode) {
+        ring.offer(InputEventRing.KEY_DOWN, keycode, 0, 0);
+        return false;
+    }
+
+    @Override
+    public boolean keyUp(int keycode) {
+        ring.offer(InputEventRing.KEY_UP, keycode, 0, 0);
+        return false;
+    }
+
+    @Override
+    public boolean keyTyped(char character) {
+        ring.offer(InputEventRing.KEY_TYPED, character, 0, 0);
+        return false;
+    }
+
+    @Override
+    public boolean touchDown(int screenX, int screenY, int pointer, int button) {
+        ring.offer(InputEventRing.TOUCH_DOWN, screenX, screenY, pointer << 8 | button);
+        return false;
+    }
+
+    @Override
+    public boolean touchUp(int screenX, int screenY, int pointer, int button) {
+        ring.offer(InputEventRing.TOUCH_UP, screenX, screenY, pointer << 8 | button);
+        return false;
+    }
+
+    @Override
+    public boolean touchDragged(int screenX, int screenY, int pointer) {
+        ring.offer(InputEventRing.TOUCH_DRAGGED, screenX, screenY, pointer << 8);
+        return false;
+    }
+
+    @Override
+    public boolean mouseMoved(int screenX, int screenY) {
+        ring.offer(InputEventRing.MOUSE_MOVED, screenX, screenY, 0);
+        return false;
+    }
+
+    @Override
+    public boolean scrolled(int amount) {
+        ring.offer(InputEventRing.SCROLLED, amount, 0, 0);
+        return false;
+    }
+}
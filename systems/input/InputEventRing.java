@@ -0,0 +1,129 @@
+package io.github.emergentorganization.emergent2dcore.systems.input;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fixed-size queue of raw input events for one producer thread (the input callbacks) and one consumer thread
+ * (the InputSystem). Events are stored as primitives in a preallocated array, so offering and polling
+ * allocate nothing, and neither side takes a lock: each only writes its own index, and publishes it with
+ * an ordered write after the event data.
+ * When the queue is full the newest event is dropped and counted.
+ */
+public class InputEventRing {
+    public static final int KEY_DOWN = 1;
+    public static final int KEY_UP = 2;
+    public static final int KEY_TYPED = 3;
+    public static final int TOUCH_DOWN = 4;
+    public static final int TOUCH_UP = 5;
+    public static final int TOUCH_DRAGGED = 6;
+    public static final int MOUSE_MOVED = 7;
+    public static final int SCROLLED = 8;
+
+    public static final int DEFAULT_CAPACITY = 256;
+
+    // type, a, b, c per event
+    private static final int STRIDE = 4;
+
+    private final int[] events;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();  // next event to poll, written by the consumer
+    private final AtomicLong tail = new AtomicLong();  // next slot to fill, written by the producer
+    private long cachedHead = 0;  // producer's last read of head, so it rarely touches the consumer's line
+    private final AtomicLong dropped = new AtomicLong();
+
+    // the event last polled
+    private int type, a, b, c;
+
+    public InputEventRing() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity rounded up to a power of two
+     */
+    public InputEventRing(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        int powerOfTwo = Integer.highestOneBit(capacity);
+        if (powerOfTwo < capacity) {
+            powerOfTwo <<= 1;
+        }
+        mask = powerOfTwo - 1;
+        events = new int[powerOfTwo * STRIDE];
+    }
+
+    /**
+     * Producer side.
+     * @return false if the queue was full and the event was dropped
+     */
+    public boolean offer(int type, int a, int b, int c) {
+        long t = tail.get();
+        if (t - cachedHead > mask) {
+            cachedHead = head.get();
+            if (t - cachedHead > mask) {
+                dropped.incrementAndGet();
+                return false;
+            }
+        }
+        int i = (int) (t & mask) * STRIDE;
+        events[i] = type;
+        events[i + 1] = a;
+        events[i + 2] = b;
+        events[i + 3] = c;
+        tail.lazySet(t + 1);  // publishes the event data written above
+        return true;
+    }
+
+    /**
+     * Consumer side. Takes the oldest event; read it with getType() and getA/B/C() until the next poll.
+     * @return false if there was none
+     */
+    public boolean poll() {
+        long h = head.get();
+        if (h == tail.get()) {
+            return false;
+        }
+        int i = (int) (h & mask) * STRIDE;
+        type = events[i];
+        a = events[i + 1];
+        b = events[i + 2];
+        c = events[i + 3];
+        head.lazySet(h + 1);  // the slot may be reused once this is visible
+        return true;
+    }
+
+    public int getType() {
+        return type;
+    }
+
+    public int getA() {
+        return a;
+    }
+
+    public int getB() {
+        return b;
+    }
+
+    public int getC() {
+        return c;
+    }
+
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    /**
+     * @return events waiting; only exact when called from one of the two threads while the other is idle
+     */
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    /**
+     * @return events dropped so far because the consumer fell behind
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+}
@@ -0,0 +1,79 @@
+package io.github.emergentorganization.emergent2dcore.systems.input;
+
+import org.junit.Test;
+
+/**
+ */
+public class InputEventRingTest {
+
+    @Test
+    public void testEventsComeOutInOrder() {
+        InputEventRing ring = new InputEventRing(4);
+        for (int round = 0; round < 3; round++) {  // wraps around the array
+            for (int i = 0; i < 4; i++) {
+                assert ring.offer(InputEventRing.KEY_DOWN, i, round, 0);
+            }
+            for (int i = 0; i < 4; i++) {
+                assert ring.poll();
+                assert ring.getA() == i && ring.getB() == round;
+            }
+            assert !ring.poll();
+        }
+    }
+
+    @Test
+    public void testFullRingDropsNewest() {
+        InputEventRing ring = new InputEventRing(3);  // rounded up to 4
+        for (int i = 0; i < 6; i++) {
+            ring.offer(InputEventRing.KEY_DOWN, i, 0, 0);
+        }
+        assert ring.getDroppedCount() == 2;
+        assert ring.poll() && ring.getA() == 0;
+        assert ring.offer(InputEventRing.KEY_DOWN, 9, 0, 0);
+    }
+
+    @Test
+    public void testSnapshotTracksPressesAcrossFrames() {
+        InputEventRing ring = new InputEventRing();
+        InputSnapshot snapshot = new InputSnapshot();
+        ring.offer(InputEventRing.KEY_DOWN, 51, 0, 0);
+        ring.offer(InputEventRing.TOUCH_DOWN, 10, 20, 0);
+        ring.offer(InputEventRing.SCROLLED, 2, 0, 0);
+        snapshot.update(ring);
+        assert snapshot.isKeyDown(51) && snapshot.isKeyPressed(51);
+        assert snapshot.isButtonPressed(0) && snapshot.getPointerX() == 10 && snapshot.getPointerY() == 20;
+        assert snapshot.getScrollAmount() == 2 && snapshot.getEventCount() == 3;
+
+        ring.offer(InputEventRing.TOUCH_DRAGGED, 11, 21, 1 << 8);  // second pointer does not move the first
+        snapshot.update(ring);
+        assert snapshot.isKeyDown(51) && !snapshot.isKeyPressed(51);
+        assert snapshot.isButtonDown(0) && !snapshot.isButtonPressed(0);
+        assert snapshot.getPointerX() == 10 && snapshot.getScrollAmount() == 0;
+    }
+
+    @Test
+    public void testEventsCrossThreads() throws InterruptedException {
+        final InputEventRing ring = new InputEventRing(16);
+        final int count = 100000;
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < count; i++) {
+                    while (!ring.offer(InputEventRing.MOUSE_MOVED, i, -i, 0)) {
+                        Thread.yield();
+                    }
+                }
+            }
+        });
+        producer.start();
+        for (int expected = 0; expected < count; ) {
+            if (ring.poll()) {
+                assert ring.getA() == expected && ring.getB() == -expected;
+                expected++;
+            } else {
+                Thread.yield();
+            }
+        }
+        producer.join();
+    }
+}
@@ -0,0 +1,111 @@
+package io.github.emergentorganization.emergent2dcore.systems.input;
+
+import com.badlogic.gdx.math.MathUtils;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Writes the input events of every frame, with the frame's delta, to a file an InputReplayer can play back.
+ * Opening a recorder seeds MathUtils.random and stores the seed, so randomness drawn from it replays too.
+ * Start recording together with the world, as replays start from a fresh world.
+ *
+ * File layout (little-endian): int magic, short version, long seed; then per frame
+ * float delta, short event count, and per event byte type, int a, int b, int c.
+ */
+public class InputRecorder {
+    static final int MAGIC = 0x52493245;  // "E2IR"
+    static final short VERSION = 1;
+    static final int HEADER_BYTES = 4 + 2 + 8;
+    static final int FRAME_BYTES = 4 + 2;
+    static final int EVENT_BYTES = 1 + 4 + 4 + 4;
+    static final int MAX_EVENTS_PER_FRAME = Short.MAX_VALUE;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+    private final long seed;
+
+    // the frame being recorded
+    private float delta;
+    private int[] events = new int[64 * 4];
+    private int eventCount;
+    private long frames = 0;
+
+    public InputRecorder(File file) throws IOException {
+        this(file, System.nanoTime());
+    }
+
+    public InputRecorder(File file, long seed) throws IOException {
+        this.seed = seed;
+        channel = new FileOutputStream(file).getChannel();
+        buffer.putInt(MAGIC).putShort(VERSION).putLong(seed);
+        MathUtils.random.setSeed(seed);
+    }
+
+    public void beginFrame(float delta) {
+        this.delta = delta;
+        eventCount = 0;
+    }
+
+    /**
+     * Records the event last polled from the ring.
+     */
+    public void record(InputEventRing ring) {
+        if (eventCount == MAX_EVENTS_PER_FRAME) {
+            return;
+        }
+        if ((eventCount + 1) * 4 > events.length) {
+            events = Arrays.copyOf(events, events.length * 2);
+        }
+        int i = eventCount++ * 4;
+        events[i] = ring.getType();
+        events[i + 1] = ring.getA();
+        events[i + 2] = ring.getB();
+        events[i + 3] = ring.getC();
+    }
+
+    public void endFrame() throws IOException {
+        ensureRemaining(FRAME_BYTES);
+        buffer.putFloat(delta).putShort((short) eventCount);
+        for (int i = 0; i < eventCount * 4; i += 4) {
+            ensureRemaining(EVENT_BYTES);
+            buffer.put((byte) events[i]).putInt(events[i + 1]).putInt(events[i + 2]).putInt(events[i + 3]);
+        }
+        frames++;
+    }
+
+    private void ensureRemaining(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public long getFrameCount() {
+        return frames;
+    }
+}
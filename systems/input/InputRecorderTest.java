@@ -0,0 +1,57 @@
+package io.github.emergentorganization.emergent2dcore.systems.input;
+
+import com.badlogic.gdx.math.MathUtils;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ */
+public class InputRecorderTest {
+
+    @Test
+    public void testReplayReproducesEventsDeltasAndRandomness() throws IOException {
+        File file = File.createTempFile("input", ".rec");
+        file.deleteOnExit();
+        InputEventRing ring = new InputEventRing();
+        InputRecorder recorder = new InputRecorder(file, 42);
+        float recordedRandom = MathUtils.random();
+        int frames = 10000;  // several buffers worth
+        for (int frame = 0; frame < frames; frame++) {
+            recorder.beginFrame(frame / 1000f);
+            for (int i = 0; i < frame % 3; i++) {
+                ring.offer(InputEventRing.TOUCH_DRAGGED, frame, -i, 1 << 8);
+            }
+            while (ring.poll()) {
+                recorder.record(ring);
+            }
+            recorder.endFrame();
+        }
+        recorder.close();
+
+        MathUtils.random.setSeed(0);
+        InputReplayer replayer = new InputReplayer(file);
+        assert replayer.getSeed() == 42;
+        assert MathUtils.random() == recordedRandom;
+        for (int frame = 0; frame < frames; frame++) {
+            assert replayer.nextFrame(ring);
+            assert replayer.getDelta() == frame / 1000f;
+            for (int i = 0; i < frame % 3; i++) {
+                assert ring.poll();
+                assert ring.getType() == InputEventRing.TOUCH_DRAGGED;
+                assert ring.getA() == frame && ring.getB() == -i && ring.getC() == 1 << 8;
+            }
+            assert !ring.poll();
+        }
+        assert !replayer.nextFrame(ring);
+        replayer.close();
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejectsOtherFiles() throws IOException {
+        File file = File.createTempFile("input", ".rec");
+        file.deleteOnExit();
+        new InputReplayer(file);
+    }
+}
@@ -0,0 +1,128 @@
+package io.github.emergentorganization.emergent2dcore.systems.input;
+
+import com.artemis.World;
+import com.badlogic.gdx.math.MathUtils;
+import io.github.emergentorganization.emergent2dcore.systems.SystemTimings;
+import io.github.emergentorganization.emergent2dcore.systems.MusicSystem.MusicSystem;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Plays back a file written by an InputRecorder: reseeds MathUtils.random, then for each recorded frame
+ * queues its input events and processes the world with its delta, as fast as the world runs.
+ * A recorded session thus becomes a repeatable benchmark, also on a headless backend
+ * (with the InputSystem in the world, which then drives the player from the replayed input,
+ * and without systems that need a GL context).
+ */
+public class InputReplayer {
+    private final Logger logger = LogManager.getLogger(getClass());
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+    private final long seed;
+    private boolean endOfFile = false;
+    private float delta;
+
+    public InputReplayer(File file) throws IOException {
+        channel = new FileInputStream(file).getChannel();
+        buffer.flip();  // empty, ready for reading
+        if (!fill(InputRecorder.HEADER_BYTES)
+                || buffer.getInt() != InputRecorder.MAGIC || buffer.getShort() != InputRecorder.VERSION) {
+            channel.close();
+            throw new IOException("not an input recording, or of another version: " + file);
+        }
+        seed = buffer.getLong();
+        MathUtils.random.setSeed(seed);
+    }
+
+    /**
+     * Reads the next frame and offers its events to the ring. Call it from the thread consuming the ring,
+     * with nothing else producing into it.
+     * @return false once all frames have been read
+     */
+    public boolean nextFrame(InputEventRing ring) throws IOException {
+        if (!fill(InputRecorder.FRAME_BYTES)) {
+            return false;
+        }
+        delta = buffer.getFloat();
+        int eventCount = buffer.getShort();
+        for (int i = 0; i < eventCount; i++) {
+            if (!fill(InputRecorder.EVENT_BYTES)) {
+                throw new EOFException("recording ends inside a frame");
+            }
+            int type = buffer.get();
+            int a = buffer.getInt(), b = buffer.getInt(), c = buffer.getInt();
+            if (!ring.offer(type, a, b, c)) {
+                logger.warn("input ring full; replayed input event dropped");
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Replays all remaining frames through the world and logs the frame rate reached.
+     * The world's MusicSystem, if any, is reseeded with the recording's seed first.
+     * @param ring ring the world's InputSystem drains (InputSystem.getEventRing())
+     * @param timings filled by the world's invocation strategy, logged afterwards; may be null
+     * @return frames replayed
+     */
+    public long run(World world, InputEventRing ring, SystemTimings timings) throws IOException {
+        MusicSystem musicSystem = world.getSystem(MusicSystem.class);
+        if (musicSystem != null) {
+            musicSystem.setSeed(seed);  // as InputSystem.startRecording did
+        }
+        long frames = 0;
+        long start = System.nanoTime();
+        while (nextFrame(ring)) {
+            world.setDelta(delta);
+            world.process();
+            frames++;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        logger.info(String.format("replayed %d frames in %.2f s: %.1f frames/s", frames, seconds, frames / seconds));
+        if (timings != null) {
+            logger.info("time per system:\n" + timings.report());
+        }
+        return frames;
+    }
+
+    /**
+     * @return true if the buffer holds at least the given number of bytes, reading more from the file as needed
+     */
+    private boolean fill(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return true;
+        }
+        buffer.compact();
+        while (!endOfFile && buffer.position() < bytes) {
+            if (channel.read(buffer) < 0) {
+                endOfFile = true;
+            }
+        }
+        buffer.flip();
+        return buffer.remaining() >= bytes;
+    }
+
+    /**
+     * @return delta of the frame last read, in seconds
+     */
+    public float getDelta() {
+        return delta;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,169 @@
+package io.github.emergentorganization.emergent2dcore.systems.input;
+
+import java.util.Arrays;
+
+/**
+ * Input state as of the start of the current frame, built once from the queued input events and read by
+ * all input processors, instead of each polling Gdx.input. Held in primitive arrays; only the InputSystem
+ * updates it, between frames, so processors see the same input however many of them run.
+ */
+public class InputSnapshot {
+    public static final int MAX_KEYCODE = 255;
+    public static final int MAX_TYPED = 32;
+
+    private final boolean[] keysDown = new boolean[MAX_KEYCODE + 1];
+    private final boolean[] keysPressed = new boolean[MAX_KEYCODE + 1];
+    private final boolean[] keysReleased = new boolean[MAX_KEYCODE + 1];
+    private final char[] typed = new char[MAX_TYPED];
+    private int typedCount;
+    private int pointerX, pointerY;
+    private int buttonsDown;  // bit per mouse button
+    private int buttonsPressed;
+    private int buttonsReleased;
+    private int scrollAmount;
+    private int eventCount;
+    private long frame = 0;
+
+    /**
+     * Starts a new frame and applies all events queued since the last one.
+     * Held keys and buttons stay down; presses, releases, typing and scrolling only last a frame.
+     */
+    public void update(InputEventRing ring) {
+        beginFrame();
+        while (ring.poll()) {
+            apply(ring);
+        }
+    }
+
+    /**
+     * Starts a new frame, for applying events one by one with apply().
+     */
+    public void beginFrame() {
+        Arrays.fill(keysPressed, false);
+        Arrays.fill(keysReleased, false);
+        typedCount = 0;
+        buttonsPressed = 0;
+        buttonsReleased = 0;
+        scrollAmount = 0;
+        eventCount = 0;
+        frame++;
+    }
+
+    /**
+     * Applies the event last polled from the ring.
+     */
+    public void apply(InputEventRing ring) {
+        int a = ring.getA();
+        eventCount++;
+        switch (ring.getType()) {
+            case InputEventRing.KEY_DOWN:
+                if (a >= 0 && a <= MAX_KEYCODE) {
+                    keysDown[a] = true;
+                    keysPressed[a] = true;
+                }
+                break;
+            case InputEventRing.KEY_UP:
+                if (a >= 0 && a <= MAX_KEYCODE) {
+                    keysDown[a] = false;
+                    keysReleased[a] = true;
+                }
+                break;
+            case InputEventRing.KEY_TYPED:
+                if (typedCount < MAX_TYPED) {
+                    typed[typedCount++] = (char) a;
+                }
+                break;
+            case InputEventRing.TOUCH_DOWN:
+                setPointer(ring);
+                buttonsDown |= 1 << (ring.getC() & 0xff);
+                buttonsPressed |= 1 << (ring.getC() & 0xff);
+                break;
+            case InputEventRing.TOUCH_UP:
+                setPointer(ring);
+                buttonsDown &= ~(1 << (ring.getC() & 0xff));
+                buttonsReleased |= 1 << (ring.getC() & 0xff);
+                break;
+            case InputEventRing.TOUCH_DRAGGED:
+            case InputEventRing.MOUSE_MOVED:
+                setPointer(ring);
+                break;
+            case InputEventRing.SCROLLED:
+                scrollAmount += a;
+                break;
+        }
+    }
+
+    private void setPointer(InputEventRing ring) {
+        if (ring.getC() >> 8 == 0) {  // first pointer only
+            pointerX = ring.getA();
+            pointerY = ring.getB();
+        }
+    }
+
+    public boolean isKeyDown(int keycode) {
+        return keycode >= 0 && keycode <= MAX_KEYCODE && keysDown[keycode];
+    }
+
+    /**
+     * @return true if the key went down since the last frame
+     */
+    public boolean isKeyPressed(int keycode) {
+        return keycode >= 0 && keycode <= MAX_KEYCODE && keysPressed[keycode];
+    }
+
+    /**
+     * @return true if the key went up since the last frame
+     */
+    public boolean isKeyReleased(int keycode) {
+        return keycode >= 0 && keycode <= MAX_KEYCODE && keysReleased[keycode];
+    }
+
+    public boolean isButtonDown(int button) {
+        return (buttonsDown & 1 << button) != 0;
+    }
+
+    public boolean isButtonPressed(int button) {
+        return (buttonsPressed & 1 << button) != 0;
+    }
+
+    public boolean isButtonReleased(int button) {
+        return (buttonsReleased & 1 << button) != 0;
+    }
+
+    /**
+     * @return screen x of the first pointer, in pixels from the left
+     */
+    public int getPointerX() {
+        return pointerX;
+    }
+
+    /**
+     * @return screen y of the first pointer, in pixels from the top
+     */
+    public int getPointerY() {
+        return pointerY;
+    }
+
+    public int getScrollAmount() {
+        return scrollAmount;
+    }
+
+    public int getTypedCount() {
+        return typedCount;
+    }
+
+    public char getTyped(int index) {
+        return typed[index];
+    }
+
+    /**
+     * @return input events applied this frame
+     */
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    public long getFrame() {
+        return frame;
+    }
+}
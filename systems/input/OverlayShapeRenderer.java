@@ -0,0 +1,285 @@
+package io.github.emergentorganization.emergent2dcore.systems.input;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.math.Vector3;
+
+/**
+ * ShapeRenderer for the input processors' debug overlay. It begins itself on the first shape drawn in a frame,
+ * so no pass is opened in frames nothing is drawn, and drops every shape while the overlay is hidden.
+ * Processors draw through it as through any begun ShapeRenderer; the InputSystem ends the frame.
+ */
+public class OverlayShapeRenderer extends ShapeRenderer {
+    private boolean enabled = false;
+
+    public OverlayShapeRenderer() {
+        setAutoShapeType(true);
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            endFrame();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Ends the pass if a shape began one this frame.
+     */
+    public void endFrame() {
+        if (isDrawing()) {
+            end();
+        }
+    }
+
+    /**
+     * @return true if shapes are drawn, beginning the pass for this frame if needed
+     */
+    private boolean ready() {
+        if (!enabled) {
+            return false;
+        }
+        if (!isDrawing()) {
+            begin();
+        }
+        return true;
+    }
+
+    @Override
+    public void set(ShapeType type) {
+        if (ready()) {
+            super.set(type);
+        }
+    }
+
+    @Override
+    public void flush() {
+        if (isDrawing()) {
+            super.flush();
+        }
+    }
+
+    @Override
+    public void point(float x, float y, float z) {
+        if (ready()) {
+            super.point(x, y, z);
+        }
+    }
+
+    @Override
+    public void line(float x, float y, float z, float x2, float y2, float z2) {
+        if (ready()) {
+            super.line(x, y, z, x2, y2, z2);
+        }
+    }
+
+    @Override
+    public void line(Vector3 v0, Vector3 v1) {
+        if (ready()) {
+            super.line(v0, v1);
+        }
+    }
+
+    @Override
+    public void line(float x, float y, float x2, float y2) {
+        if (ready()) {
+            super.line(x, y, x2, y2);
+        }
+    }
+
+    @Override
+    public void line(Vector2 v0, Vector2 v1) {
+        if (ready()) {
+            super.line(v0, v1);
+        }
+    }
+
+    @Override
+    public void line(float x, float y, float x2, float y2, Color c1, Color c2) {
+        if (ready()) {
+            super.line(x, y, x2, y2, c1, c2);
+        }
+    }
+
+    @Override
+    public void line(float x, float y, float z, float x2, float y2, float z2, Color c1, Color c2) {
+        if (ready()) {
+            super.line(x, y, z, x2, y2, z2, c1, c2);
+        }
+    }
+
+    @Override
+    public void curve(float x1, float y1, float cx1, float cy1, float cx2, float cy2, float x2, float y2, int segments) {
+        if (ready()) {
+            super.curve(x1, y1, cx1, cy1, cx2, cy2, x2, y2, segments);
+        }
+    }
+
+    @Override
+    public void triangle(float x1, float y1, float x2, float y2, float x3, float y3) {
+        if (ready()) {
+            super.triangle(x1, y1, x2, y2, x3, y3);
+        }
+    }
+
+    @Override
+    public void triangle(float x1, float y1, float x2, float y2, float x3, float y3, Color col1, Color col2, Color col3) {
+        if (ready()) {
+            super.triangle(x1, y1, x2, y2, x3, y3, col1, col2, col3);
+        }
+    }
+
+    @Override
+    public void rect(float x, float y, float width, float height) {
+        if (ready()) {
+            super.rect(x, y, width, height);
+        }
+    }
+
+    @Override
+    public void rect(float x, float y, float width, float height, Color col1, Color col2, Color col3, Color col4) {
+        if (ready()) {
+            super.rect(x, y, width, height, col1, col2, col3, col4);
+        }
+    }
+
+    @Override
+    public void rect(float x, float y, float originX, float originY, float width, float height, float scaleX,
+                     float scaleY, float degrees) {
+        if (ready()) {
+            super.rect(x, y, originX, originY, width, height, scaleX, scaleY, degrees);
+        }
+    }
+
+    @Override
+    public void rect(float x, float y, float originX, float originY, float width, float height, float scaleX,
+                     float scaleY, float degrees, Color col1, Color col2, Color col3, Color col4) {
+        if (ready()) {
+            super.rect(x, y, originX, originY, width, height, scaleX, scaleY, degrees, col1, col2, col3, col4);
+        }
+    }
+
+    @Override
+    public void rectLine(float x1, float y1, float x2, float y2, float width) {
+        if (ready()) {
+            super.rectLine(x1, y1, x2, y2, width);
+        }
+    }
+
+    @Override
+    public void rectLine(Vector2 p1, Vector2 p2, float width) {
+        if (ready()) {
+            super.rectLine(p1, p2, width);
+        }
+    }
+
+    @Override
+    public void box(float x, float y, float z, float width, float height, float depth) {
+        if (ready()) {
+            super.box(x, y, z, width, height, depth);
+        }
+    }
+
+    @Override
+    public void x(float x, float y, float size) {
+        if (ready()) {
+            super.x(x, y, size);
+        }
+    }
+
+    @Override
+    public void x(Vector2 p, float size) {
+        if (ready()) {
+            super.x(p, size);
+        }
+    }
+
+    @Override
+    public void arc(float x, float y, float radius, float start, float degrees) {
+        if (ready()) {
+            super.arc(x, y, radius, start, degrees);
+        }
+    }
+
+    @Override
+    public void arc(float x, float y, float radius, float start, float degrees, int segments) {
+        if (ready()) {
+            super.arc(x, y, radius, start, degrees, segments);
+        }
+    }
+
+    @Override
+    public void circle(float x, float y, float radius) {
+        if (ready()) {
+            super.circle(x, y, radius);
+        }
+    }
+
+    @Override
+    public void circle(float x, float y, float radius, int segments) {
+        if (ready()) {
+            super.circle(x, y, radius, segments);
+        }
+    }
+
+    @Override
+    public void ellipse(float x, float y, float width, float height) {
+        if (ready()) {
+            super.ellipse(x, y, width, height);
+        }
+    }
+
+    @Override
+    public void ellipse(float x, float y, float width, float height, int segments) {
+        if (ready()) {
+            super.ellipse(x, y, width, height, segments);
+        }
+    }
+
+    @Override
+    public void cone(float x, float y, float z, float radius, float height) {
+        if (ready()) {
+            super.cone(x, y, z, radius, height);
+        }
+    }
+
+    @Override
+    public void cone(float x, float y, float z, float radius, float height, int segments) {
+        if (ready()) {
+            super.cone(x, y, z, radius, height, segments);
+        }
+    }
+
+    @Override
+    public void polygon(float[] vertices, int offset, int count) {
+        if (ready()) {
+            super.polygon(vertices, offset, count);
+        }
+    }
+
+    @Override
+    public void polygon(float[] vertices) {
+        if (ready()) {
+            super.polygon(vertices);
+        }
+    }
+
+    @Override
+    public void polyline(float[] vertices, int offset, int count) {
+        if (ready()) {
+            super.polyline(vertices, offset, count);
+        }
+    }
+
+    @Override
+    public void polyline(float[] vertices) {
+        if (ready()) {
+            super.polyline(vertices);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package io.github.emergentorganization.emergent2dcore.systems.input;
+
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.math.Vector2;
+import io.github.emergentorganization.emergent2dcore.components.InputComponent;
+import io.github.emergentorganization.emergent2dcore.components.Rotation;
+
+/**
+ * Drives the player from the InputSnapshot alone: WASD or the arrow keys set the InputComponent's direction,
+ * which the InputMovementSystem turns into movement, and space or the left button pulls the trigger.
+ * The InputSystem runs it when there is no GL context for the PlayerInputProcessor,
+ * so a headless replay steers the player by the recorded input.
+ */
+public class SnapshotPlayerInput {
+
+    /**
+     * Fires the player's weapon; set by the game, which owns the weapons.
+     */
+    public interface Trigger {
+        void fire(int entityId, Vector2 direction);
+    }
+
+    private final InputSnapshot snapshot;
+    private Trigger trigger;
+    private final Vector2 aim = new Vector2();
+
+    public SnapshotPlayerInput(InputSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * @param rotation the player's rotation, aimed along when firing; if null, shots follow the movement direction
+     */
+    public void process(int entityId, InputComponent input, Rotation rotation) {
+        if (steer(snapshot, input.direction).isZero()) {
+            input.stopMoving();
+        }
+        if (trigger != null && isFiring(snapshot)) {
+            if (rotation != null) {
+                input.getForwardDirection(rotation, aim);
+            } else {
+                aim.set(input.direction);
+            }
+            if (!aim.isZero()) {
+                trigger.fire(entityId, aim);
+            }
+        }
+    }
+
+    /**
+     * Sets out to the unit direction the held movement keys point in, or zero if none or opposite ones are held.
+     * @return out
+     */
+    public static Vector2 steer(InputSnapshot snapshot, Vector2 out) {
+        float x = 0, y = 0;
+        if (snapshot.isKeyDown(Input.Keys.A) || snapshot.isKeyDown(Input.Keys.LEFT)) {
+            x -= 1;
+        }
+        if (snapshot.isKeyDown(Input.Keys.D) || snapshot.isKeyDown(Input.Keys.RIGHT)) {
+            x += 1;
+        }
+        if (snapshot.isKeyDown(Input.Keys.S) || snapshot.isKeyDown(Input.Keys.DOWN)) {
+            y -= 1;
+        }
+        if (snapshot.isKeyDown(Input.Keys.W) || snapshot.isKeyDown(Input.Keys.UP)) {
+            y += 1;
+        }
+        return out.set(x, y).nor();
+    }
+
+    public static boolean isFiring(InputSnapshot snapshot) {
+        return snapshot.isKeyDown(Input.Keys.SPACE) || snapshot.isButtonDown(Input.Buttons.LEFT);
+    }
+
+    /**
+     * @param trigger called each frame the player fires; null to not fire at all
+     */
+    public void setTrigger(Trigger trigger) {
+        this.trigger = trigger;
+    }
+}
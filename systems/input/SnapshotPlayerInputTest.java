@@ -0,0 +1,86 @@
+package io.github.emergentorganization.emergent2dcore.systems.input;
+
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.math.Vector2;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ */
+public class SnapshotPlayerInputTest {
+    private static final int FRAMES = 2000;
+    private static final float SPEED = 3;  // as the InputMovementSystem moves by InputComponent.speed
+    private static final int[] KEYS = {Input.Keys.W, Input.Keys.A, Input.Keys.S, Input.Keys.D,
+            Input.Keys.UP, Input.Keys.LEFT, Input.Keys.SPACE};
+
+    @Test
+    public void testReplayReproducesPlayerPositions() throws IOException {
+        File file = File.createTempFile("input", ".rec");
+        file.deleteOnExit();
+        Random script = new Random(7);
+        InputEventRing ring = new InputEventRing();
+        InputSnapshot snapshot = new InputSnapshot();
+        InputRecorder recorder = new InputRecorder(file, 42);
+        Vector2 position = new Vector2();
+        Vector2 direction = new Vector2();
+        float[] recordedX = new float[FRAMES], recordedY = new float[FRAMES];
+        boolean[] recordedFiring = new boolean[FRAMES];
+        int moves = 0;
+        for (int frame = 0; frame < FRAMES; frame++) {
+            if (script.nextInt(4) == 0) {  // input arrives between frames
+                int key = KEYS[script.nextInt(KEYS.length)];
+                ring.offer(script.nextBoolean() ? InputEventRing.KEY_DOWN : InputEventRing.KEY_UP, key, 0, 0);
+            }
+            float delta = 1 / 60f + script.nextFloat() / 100;
+            // as the InputSystem does while recording
+            snapshot.beginFrame();
+            recorder.beginFrame(delta);
+            while (ring.poll()) {
+                recorder.record(ring);
+                snapshot.apply(ring);
+            }
+            recorder.endFrame();
+            if (!SnapshotPlayerInput.steer(snapshot, direction).isZero()) {
+                moves++;
+            }
+            position.mulAdd(direction, SPEED * delta);
+            recordedX[frame] = position.x;
+            recordedY[frame] = position.y;
+            recordedFiring[frame] = SnapshotPlayerInput.isFiring(snapshot);
+        }
+        recorder.close();
+        assert moves > FRAMES / 4;  // the script does move the player
+
+        InputReplayer replayer = new InputReplayer(file);
+        InputSnapshot replayed = new InputSnapshot();
+        position.set(0, 0);
+        for (int frame = 0; frame < FRAMES; frame++) {
+            assert replayer.nextFrame(ring);
+            replayed.update(ring);
+            SnapshotPlayerInput.steer(replayed, direction);
+            position.mulAdd(direction, SPEED * replayer.getDelta());
+            assert position.x == recordedX[frame] && position.y == recordedY[frame];
+            assert SnapshotPlayerInput.isFiring(replayed) == recordedFiring[frame];
+        }
+        assert !replayer.nextFrame(ring);
+        replayer.close();
+    }
+
+    @Test
+    public void testOppositeKeysCancel() {
+        InputEventRing ring = new InputEventRing();
+        InputSnapshot snapshot = new InputSnapshot();
+        ring.offer(InputEventRing.KEY_DOWN, Input.Keys.W, 0, 0);
+        ring.offer(InputEventRing.KEY_DOWN, Input.Keys.D, 0, 0);
+        snapshot.update(ring);
+        Vector2 direction = SnapshotPlayerInput.steer(snapshot, new Vector2());
+        assert Math.abs(direction.len() - 1) < 1e-6f && direction.x > 0 && direction.y > 0;
+        ring.offer(InputEventRing.KEY_DOWN, Input.Keys.DOWN, 0, 0);
+        ring.offer(InputEventRing.KEY_DOWN, Input.Keys.A, 0, 0);
+        snapshot.update(ring);
+        assert SnapshotPlayerInput.steer(snapshot, direction).isZero();
+    }
+}
@@ -0,0 +1,105 @@
+package io.github.emergentorganization.emergent2dcore.systems.movement;
+
+import com.badlogic.gdx.math.Vector2;
+
+import java.util.Random;
+
+/**
+ * Compares three layouts for the kinematic integration step x += vx * dt:
+ * per-entity component lookup as MovementSystem did it, the dense vector references of KinematicSet,
+ * and primitive structure-of-arrays (the ceiling, which the public Vector2 fields of Position and Velocity rule out).
+ * Components are allocated in random order among other garbage, as in a long-running world.
+ * Run with main(); results are printed in ms per frame.
+ */
+public class KinematicBenchmark {
+    private static final int[] ENTITY_COUNTS = {10000, 50000, 200000};
+    private static final int WARMUP_FRAMES = 200;
+    private static final int FRAMES = 500;
+    private static final float DELTA = 1 / 60f;
+
+    // stand-ins for the Position and Velocity components
+    private static class PositionComponent {
+        final Vector2 position = new Vector2();
+    }
+
+    private static class VelocityComponent {
+        final Vector2 velocity = new Vector2();
+    }
+
+    private static float sink;
+
+    public static void main(String[] args) {
+        for (int n : ENTITY_COUNTS) {
+            Random random = new Random(1);
+            int[] ids = new int[n];
+            for (int i = 0; i < n; i++) {
+                ids[i] = i;
+            }
+            for (int i = n - 1; i > 0; i--) {  // components created in random entity order
+                int j = random.nextInt(i + 1);
+                int t = ids[i];
+                ids[i] = ids[j];
+                ids[j] = t;
+            }
+            PositionComponent[] positions = new PositionComponent[n];  // indexed by entity id, like a ComponentMapper
+            VelocityComponent[] velocities = new VelocityComponent[n];
+            Object[] garbage = new Object[n];
+            for (int i = 0; i < n; i++) {
+                int id = ids[i];
+                positions[id] = new PositionComponent();
+                garbage[i] = new float[random.nextInt(8) + 1];
+                velocities[id] = new VelocityComponent();
+                velocities[id].velocity.set(random.nextFloat() - 0.5f, random.nextFloat() - 0.5f);
+            }
+
+            KinematicSet set = new KinematicSet();
+            float[] x = new float[n], y = new float[n], vx = new float[n], vy = new float[n];
+            for (int id = 0; id < n; id++) {
+                set.add(id, positions[id].position, velocities[id].velocity);
+                vx[id] = velocities[id].velocity.x;
+                vy[id] = velocities[id].velocity.y;
+            }
+
+            mapper(positions, velocities, WARMUP_FRAMES);
+            double mapper = mapper(positions, velocities, FRAMES);
+            dense(set, WARMUP_FRAMES);
+            double dense = dense(set, FRAMES);
+            structureOfArrays(x, y, vx, vy, WARMUP_FRAMES);
+            double soa = structureOfArrays(x, y, vx, vy, FRAMES);
+            System.out.printf("%7d entities: component lookup %.3f ms, KinematicSet %.3f ms, primitive SoA %.3f ms%n",
+                    n, mapper, dense, soa);
+            sink += garbage.length + x[0];
+        }
+    }
+
+    private static double mapper(PositionComponent[] positions, VelocityComponent[] velocities, int frames) {
+        long start = System.nanoTime();
+        for (int frame = 0; frame < frames; frame++) {
+            for (int id = 0; id < positions.length; id++) {
+                Vector2 p = positions[id].position;
+                Vector2 v = velocities[id].velocity;
+                p.add(v.x * DELTA, v.y * DELTA);
+            }
+        }
+        return (System.nanoTime() - start) / 1e6 / frames;
+    }
+
+    private static double dense(KinematicSet set, int frames) {
+        long start = System.nanoTime();
+        for (int frame = 0; frame < frames; frame++) {
+            set.integrate(DELTA);
+        }
+        return (System.nanoTime() - start) / 1e6 / frames;
+    }
+
+    private static double structureOfArrays(float[] x, float[] y, float[] vx, float[] vy, int frames) {
+        long start = System.nanoTime();
+        for (int frame = 0; frame < frames; frame++) {
+            for (int i = 0; i < x.length; i++) {
+                x[i] += vx[i] * DELTA;
+                y[i] += vy[i] * DELTA;
+            }
+        }
+        return (System.nanoTime() - start) / 1e6 / frames;
+    }
+}
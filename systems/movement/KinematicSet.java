@@ -0,0 +1,136 @@
+package io.github.emergentorganization.emergent2dcore.systems.movement;
+
+import com.badlogic.gdx.math.Vector2;
+import io.github.emergentorganization.emergent2dcore.systems.LodSystem;
+
+import java.util.Arrays;
+
+/**
+ * Densely packed position and velocity vectors of the entities moved without physics.
+ * Slot i holds the vectors of entity getEntityId(i); removal swaps the last slot in, so the arrays stay
+ * contiguous and integration is a single pass without component lookups.
+ * The vectors are those of the Position and Velocity components themselves, so the components stay
+ * authoritative and every other system keeps using them as before.
+ */
+public class KinematicSet {
+    private static final int NOT_PRESENT = -1;
+
+    private int size = 0;
+    private int[] ids = new int[128];
+    private Vector2[] positions = new Vector2[128];
+    private Vector2[] velocities = new Vector2[128];
+    private int[] slotOf = new int[128];  // by entity id
+
+    public KinematicSet() {
+        Arrays.fill(slotOf, NOT_PRESENT);
+    }
+
+    public void add(int entityId, Vector2 position, Vector2 velocity) {
+        if (entityId >= slotOf.length) {
+            int length = slotOf.length;
+            slotOf = Arrays.copyOf(slotOf, Math.max(length * 2, entityId + 1));
+            Arrays.fill(slotOf, length, slotOf.length, NOT_PRESENT);
+        }
+        int slot = slotOf[entityId];
+        if (slot == NOT_PRESENT) {
+            if (size == ids.length) {
+                grow();
+            }
+            slot = size++;
+            slotOf[entityId] = slot;
+            ids[slot] = entityId;
+        }
+        positions[slot] = position;
+        velocities[slot] = velocity;
+    }
+
+    public void remove(int entityId) {
+        if (!contains(entityId)) {
+            return;
+        }
+        int slot = slotOf[entityId];
+        int last = --size;
+        if (slot != last) {
+            ids[slot] = ids[last];
+            positions[slot] = positions[last];
+            velocities[slot] = velocities[last];
+            slotOf[ids[slot]] = slot;
+        }
+        positions[last] = null;
+        velocities[last] = null;
+        slotOf[entityId] = NOT_PRESENT;
+    }
+
+    public boolean contains(int entityId) {
+        return entityId < slotOf.length && slotOf[entityId] != NOT_PRESENT;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getEntityId(int slot) {
+        return ids[slot];
+    }
+
+    /**
+     * @return one more than the largest entity id the set can currently hold
+     */
+    public int getIdCapacity() {
+        return slotOf.length;
+    }
+
+    /**
+     * Moves every entity by its velocity over the given time.
+     */
+    public void integrate(float delta) {
+        integrate(0, size, delta);
+    }
+
+    /**
+     * Moves the entities in slots [from, to) by their velocity over the given time.
+     */
+    public void integrate(int from, int to, float delta) {
+        final Vector2[] positions = this.positions;
+        final Vector2[] velocities = this.velocities;
+        for (int i = from; i < to; i++) {
+            Vector2 p = positions[i];
+            Vector2 v = velocities[i];
+            p.x += v.x * delta;
+            p.y += v.y * delta;
+        }
+    }
+
+    /**
+     * Moves every entity by the time its LOD clock has accumulated; entities skipped this frame do not move.
+     */
+    public void integrate(float delta, LodSystem.Clock clock) {
+        integrate(0, size, delta, clock);
+    }
+
+    /**
+     * Moves the entities in slots [from, to) by the time their LOD clock has accumulated.
+     * Disjoint ranges may be integrated concurrently once the clock has room for every entity id
+     * (see LodSystem.Clock.ensureCapacity and getIdCapacity).
+     */
+    public void integrate(int from, int to, float delta, LodSystem.Clock clock) {
+        final Vector2[] positions = this.positions;
+        final Vector2[] velocities = this.velocities;
+        for (int i = from; i < to; i++) {
+            float d = clock.step(ids[i], delta);
+            if (d > 0) {
+                Vector2 p = positions[i];
+                Vector2 v = velocities[i];
+                p.x += v.x * d;
+                p.y += v.y * d;
+            }
+        }
+    }
+
+    private void grow() {
+        int length = ids.length * 2;
+        ids = Arrays.copyOf(ids, length);
+        positions = Arrays.copyOf(positions, length);
+        velocities = Arrays.copyOf(velocities, length);
+    }
+}
@@ -0,0 +1,112 @@
+package io.github.emergentorganization.emergent2dcore.systems.movement;
+
+import io.github.emergentorganization.emergent2dcore.systems.LodSystem;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Integrates a KinematicSet on a ForkJoin pool, splitting its slots into chunks.
+ * Sets smaller than the threshold are integrated on the calling thread, where the fork overhead would not pay off.
+ * Every entity is moved by exactly the same arithmetic as sequentially, so results do not depend on the split.
+ */
+public class ParallelIntegrator {
+    public static final int DEFAULT_CHUNK_SIZE = 8192;
+    public static final int DEFAULT_THRESHOLD = 32768;
+
+    private final ForkJoinPool pool;
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    private int threshold = DEFAULT_THRESHOLD;
+
+    /**
+     * @param parallelism number of worker threads
+     */
+    public ParallelIntegrator(int parallelism) {
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    public void integrate(KinematicSet set, float delta) {
+        integrate(set, delta, null);
+    }
+
+    /**
+     * @param clock LOD clock to throttle distant entities with, or null
+     */
+    public void integrate(KinematicSet set, float delta, LodSystem.Clock clock) {
+        if (clock != null) {
+            clock.ensureCapacity(set.getIdCapacity());  // workers must not grow it
+        }
+        if (set.size() < threshold) {
+            integrateRange(set, 0, set.size(), delta, clock);
+        } else {
+            pool.invoke(new IntegrateTask(set, 0, set.size(), delta, clock));
+        }
+    }
+
+    private static void integrateRange(KinematicSet set, int from, int to, float delta, LodSystem.Clock clock) {
+        if (clock != null) {
+            set.integrate(from, to, delta, clock);
+        } else {
+            set.integrate(from, to, delta);
+        }
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * @param chunkSize number of entities integrated by one task
+     */
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunk size must be at least 1: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * @param threshold smallest number of entities which is integrated in parallel
+     */
+    public void setThreshold(int threshold) {
+        this.threshold = threshold;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private class IntegrateTask extends RecursiveAction {
+        private final KinematicSet set;
+        private final int from, to;
+        private final float delta;
+        private final LodSystem.Clock clock;
+
+        IntegrateTask(KinematicSet set, int from, int to, float delta, LodSystem.Clock clock) {
+            this.set = set;
+            this.from = from;
+            this.to = to;
+            this.delta = delta;
+            this.clock = clock;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                integrateRange(set, from, to, delta, clock);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new IntegrateTask(set, from, middle, delta, clock),
+                    new IntegrateTask(set, middle, to, delta, clock));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package io.github.emergentorganization.emergent2dcore.systems.movement;
+
+import com.badlogic.gdx.math.Vector2;
+
+import java.util.Random;
+
+/**
+ * Measures how ParallelIntegrator scales from one worker thread to every available core,
+ * with the sequential KinematicSet.integrate() as baseline.
+ * Run with main(); results are printed in ms per frame.
+ */
+public class ParallelKinematicBenchmark {
+    private static final int[] ENTITY_COUNTS = {50000, 200000, 1000000};
+    private static final int WARMUP_FRAMES = 200;
+    private static final int FRAMES = 500;
+    private static final float DELTA = 1 / 60f;
+
+    public static void main(String[] args) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int n : ENTITY_COUNTS) {
+            KinematicSet set = createSet(n, new Random(1));
+            for (int frame = 0; frame < WARMUP_FRAMES; frame++) {
+                set.integrate(DELTA);
+            }
+            long start = System.nanoTime();
+            for (int frame = 0; frame < FRAMES; frame++) {
+                set.integrate(DELTA);
+            }
+            StringBuilder line = new StringBuilder(String.format("%8d entities: sequential %.3f ms",
+                    n, (System.nanoTime() - start) / 1e6 / FRAMES));
+
+            // powers of two, then every core
+            for (int threads = 1; threads < cores; threads *= 2) {
+                line.append(String.format(", %d threads %.3f ms", threads, parallel(set, threads)));
+            }
+            line.append(String.format(", %d threads %.3f ms", cores, parallel(set, cores)));
+            System.out.println(line);
+        }
+    }
+
+    private static double parallel(KinematicSet set, int threads) {
+        ParallelIntegrator integrator = new ParallelIntegrator(threads);
+        integrator.setThreshold(0);
+        try {
+            for (int frame = 0; frame < WARMUP_FRAMES; frame++) {
+                integrator.integrate(set, DELTA);
+            }
+            long start = System.nanoTime();
+            for (int frame = 0; frame < FRAMES; frame++) {
+                integrator.integrate(set, DELTA);
+            }
+            return (System.nanoTime() - start) / 1e6 / FRAMES;
+        } finally {
+            integrator.shutdown();
+        }
+    }
+
+    private static KinematicSet createSet(int n, Random random) {
+        KinematicSet set = new KinematicSet();
+        for (int id = 0; id < n; id++) {
+            Vector2 velocity = new Vector2(random.nextFloat() - 0.5f, random.nextFloat() - 0.5f);
+            set.add(id, new Vector2(), velocity);
+        }
+        return set;
+    }
+}
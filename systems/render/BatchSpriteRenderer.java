@@ -0,0 +1,52 @@
+package io.github.emergentorganization.emergent2dcore.systems.render;
+
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Matrix4;
+
+/**
+ * Default SpriteRenderer, backed by a libGDX SpriteBatch.
+ * The batch is not owned by this renderer and is not disposed with it.
+ */
+public class BatchSpriteRenderer implements SpriteRenderer {
+    private final SpriteBatch batch;
+
+    public BatchSpriteRenderer(SpriteBatch batch) {
+        this.batch = batch;
+    }
+
+    @Override
+    public void begin(Matrix4 projection) {
+        batch.setProjectionMatrix(projection);
+        batch.begin();
+    }
+
+    @Override
+    public void draw(TextureRegion t, float x, float y, float scale, float angle) {
+        batch.draw(t, x, y, 0, 0, t.getRegionWidth(), t.getRegionHeight(), scale, scale, angle);
+    }
+
+    @Override
+    public void end() {
+        batch.end();
+    }
+
+    @Override
+    public int getRenderCalls() {
+        return batch.renderCalls;
+    }
+
+    @Override
+    public int getMaxSpritesInBatch() {
+        return batch.maxSpritesInBatch;
+    }
+
+    @Override
+    public void resetMaxSpritesInBatch() {
+        batch.maxSpritesInBatch = 0;
+    }
+
+    @Override
+    public void dispose() {
+    }
+}
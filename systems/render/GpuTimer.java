@@ -0,0 +1,121 @@
+package io.github.emergentorganization.emergent2dcore.systems.render;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL30;
+import com.badlogic.gdx.utils.BufferUtils;
+import com.badlogic.gdx.utils.Disposable;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * Measures GPU time of a fixed number of sections per frame using GL timer queries.
+ * Results are read a few frames late so the CPU never waits on the GPU.
+ * Does nothing when the context does not support timer queries; see isSupported().
+ */
+public class GpuTimer implements Disposable {
+    private static final int GL_TIME_ELAPSED = 0x88BF;  // not in libGDX's GL30 constants
+    private static final int FRAMES_IN_FLIGHT = 3;
+    public static final long UNKNOWN = -1;
+
+    private final boolean supported;
+    private final int timerCount;
+    private final IntBuffer queries;  // [frame * timerCount + timer]
+    private final boolean[] issued;
+    private final long[] elapsedNanos;
+    private final IntBuffer result = BufferUtils.newIntBuffer(1);
+    private int frame = 0;
+    private int active = -1;
+
+    public GpuTimer(int timerCount) {
+        this.supported = isSupported();
+        this.timerCount = timerCount;
+        this.issued = new boolean[FRAMES_IN_FLIGHT * timerCount];
+        this.elapsedNanos = new long[timerCount];
+        Arrays.fill(elapsedNanos, UNKNOWN);
+        if (supported) {
+            queries = BufferUtils.newIntBuffer(FRAMES_IN_FLIGHT * timerCount);
+            Gdx.gl30.glGenQueries(FRAMES_IN_FLIGHT * timerCount, queries);
+        } else {
+            queries = null;
+        }
+    }
+
+    /**
+     * @return true if the current context supports GL_TIME_ELAPSED queries
+     */
+    public static boolean isSupported() {
+        return Gdx.gl30 != null
+                && (Gdx.graphics.supportsExtension("GL_ARB_timer_query")
+                || Gdx.graphics.supportsExtension("GL_EXT_timer_query")
+                || Gdx.graphics.supportsExtension("GL_EXT_disjoint_timer_query"));
+    }
+
+    public int getTimerCount() {
+        return timerCount;
+    }
+
+    /**
+     * Starts a new frame, collecting any results of the oldest frame in flight which are ready.
+     */
+    public void beginFrame() {
+        if (!supported) {
+            return;
+        }
+        frame = (frame + 1) % FRAMES_IN_FLIGHT;
+        for (int timer = 0; timer < timerCount; timer++) {
+            int slot = frame * timerCount + timer;
+            if (!issued[slot]) {
+                continue;
+            }
+            int query = queries.get(slot);
+            result.clear();
+            Gdx.gl30.glGetQueryObjectuiv(query, GL30.GL_QUERY_RESULT_AVAILABLE, result);
+            if (result.get(0) != 0) {
+                result.clear();
+                Gdx.gl30.glGetQueryObjectuiv(query, GL30.GL_QUERY_RESULT, result);
+                elapsedNanos[timer] = result.get(0) & 0xffffffffL;
+            }
+            issued[slot] = false;  // an unavailable result is dropped rather than waited for
+        }
+    }
+
+    /**
+     * Starts timing a section; sections may not nest.
+     */
+    public void begin(int timer) {
+        if (!supported) {
+            return;
+        }
+        if (active != -1) {
+            throw new IllegalStateException("end() must be called before timing another section");
+        }
+        int slot = frame * timerCount + timer;
+        Gdx.gl30.glBeginQuery(GL_TIME_ELAPSED, queries.get(slot));
+        issued[slot] = true;
+        active = timer;
+    }
+
+    public void end() {
+        if (!supported) {
+            return;
+        }
+        Gdx.gl30.glEndQuery(GL_TIME_ELAPSED);
+        active = -1;
+    }
+
+    /**
+     * @return GPU time of the section's latest collected measurement in nanoseconds, or UNKNOWN
+     */
+    public long getElapsedNanos(int timer) {
+        return elapsedNanos[timer];
+    }
+
+    @Override
+    public void dispose() {
+        if (supported) {
+            queries.clear();
+            Gdx.gl30.glDeleteQueries(FRAMES_IN_FLIGHT * timerCount, queries);
+        }
+    }
+}
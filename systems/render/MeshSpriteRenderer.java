@@ -0,0 +1,296 @@
+package io.github.emergentorganization.emergent2dcore.systems.render;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.GL30;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.VertexAttribute;
+import com.badlogic.gdx.graphics.VertexAttributes.Usage;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.BufferUtils;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * SpriteRenderer for very large sprite counts.
+ * Per-sprite data (position, scaled size, angle, uv rect) is written straight into a direct FloatBuffer
+ * and the rotation is applied in the vertex shader instead of on the CPU.
+ * Uses GL30 instancing (one quad, one instance per sprite) when available,
+ * otherwise each sprite is expanded into four vertices carrying the same per-sprite data.
+ * A draw call is issued whenever the texture changes or the buffer is full.
+ */
+public class MeshSpriteRenderer implements SpriteRenderer {
+    private static final int FLOATS_PER_SPRITE = 9;  // x, y, width, height, angle, u, v, u2, v2
+    private static final int MAX_EXPANDED_SPRITES = 8191;  // 4 vertices each must fit in short indices
+    private static final int MAX_INSTANCED_SPRITES = 16384;
+
+    private static final String VERTEX_SHADER = ""
+            + "attribute vec2 a_corner;\n"
+            + "attribute vec4 a_rect;\n"  // x, y, width, height
+            + "attribute float a_angle;\n"  // radians
+            + "attribute vec4 a_uv;\n"  // u, v, u2, v2
+            + "uniform mat4 u_projTrans;\n"
+            + "varying vec2 v_texCoords;\n"
+            + "void main() {\n"
+            + "    vec2 local = a_corner * a_rect.zw;\n"
+            + "    float c = cos(a_angle);\n"
+            + "    float s = sin(a_angle);\n"
+            + "    vec2 world = a_rect.xy + vec2(local.x * c - local.y * s, local.x * s + local.y * c);\n"
+            + "    v_texCoords = vec2(mix(a_uv.x, a_uv.z, a_corner.x), mix(a_uv.w, a_uv.y, a_corner.y));\n"
+            + "    gl_Position = u_projTrans * vec4(world, 0.0, 1.0);\n"
+            + "}\n";
+
+    private static final String FRAGMENT_SHADER = ""
+            + "#ifdef GL_ES\n"
+            + "precision mediump float;\n"
+            + "#endif\n"
+            + "varying vec2 v_texCoords;\n"
+            + "uniform sampler2D u_texture;\n"
+            + "void main() {\n"
+            + "    gl_FragColor = texture2D(u_texture, v_texCoords);\n"
+            + "}\n";
+
+    private final Logger logger = LogManager.getLogger(getClass());
+
+    private final boolean instanced;
+    private final int maxSprites;
+    private final ShaderProgram shader;
+    private final FloatBuffer buffer;
+
+    // expanded-quad path
+    private Mesh mesh;
+
+    // instanced path
+    private int vao, quadVbo, instanceVbo;
+
+    private Texture lastTexture;
+    private int spriteCount = 0;
+    private int renderCalls = 0;
+    private int maxSpritesInBatch = 0;
+    private boolean drawing = false;
+
+    public MeshSpriteRenderer() {
+        this(Gdx.gl30 != null);
+    }
+
+    /**
+     * @param useInstancing use GL30 instanced drawing; ignored if the context does not support GL30
+     */
+    public MeshSpriteRenderer(boolean useInstancing) {
+        instanced = useInstancing && Gdx.gl30 != null;
+        maxSprites = instanced ? MAX_INSTANCED_SPRITES : MAX_EXPANDED_SPRITES;
+
+        if (instanced) {
+            shader = new ShaderProgram(gl30Header(true) + VERTEX_SHADER, gl30Header(false) + FRAGMENT_SHADER);
+        } else {
+            shader = new ShaderProgram(VERTEX_SHADER, FRAGMENT_SHADER);
+        }
+        if (!shader.isCompiled()) {
+            throw new GdxRuntimeException("MeshSpriteRenderer shader failed to compile: " + shader.getLog());
+        }
+
+        if (instanced) {
+            buffer = BufferUtils.newFloatBuffer(maxSprites * FLOATS_PER_SPRITE);
+            createInstancedBuffers();
+        } else {
+            mesh = new Mesh(false, maxSprites * 4, maxSprites * 6,
+                    new VertexAttribute(Usage.Generic, 2, "a_corner"),
+                    new VertexAttribute(Usage.Generic, 4, "a_rect"),
+                    new VertexAttribute(Usage.Generic, 1, "a_angle"),
+                    new VertexAttribute(Usage.Generic, 4, "a_uv"));
+            mesh.setIndices(createQuadIndices(maxSprites));
+            buffer = mesh.getVerticesBuffer();
+        }
+        logger.info("mesh sprite renderer using " + (instanced ? "GL30 instancing" : "expanded quads"));
+    }
+
+    private static String gl30Header(boolean vertexShader) {
+        String version = Gdx.app.getType() == Application.ApplicationType.Desktop ? "#version 330 core\n" : "#version 300 es\n";
+        if (vertexShader) {
+            return version
+                    + "#define attribute in\n"
+                    + "#define varying out\n";
+        } else {
+            return version
+                    + "#define varying in\n"
+                    + "#define texture2D texture\n"
+                    + "#define gl_FragColor fragColor\n"
+                    + "out vec4 fragColor;\n";
+        }
+    }
+
+    private static short[] createQuadIndices(int sprites) {
+        short[] indices = new short[sprites * 6];
+        for (int i = 0, v = 0; i < indices.length; i += 6, v += 4) {
+            indices[i] = (short) v;
+            indices[i + 1] = (short) (v + 1);
+            indices[i + 2] = (short) (v + 2);
+            indices[i + 3] = (short) (v + 2);
+            indices[i + 4] = (short) (v + 3);
+            indices[i + 5] = (short) v;
+        }
+        return indices;
+    }
+
+    private void createInstancedBuffers() {
+        GL30 gl = Gdx.gl30;
+        IntBuffer ids = BufferUtils.newIntBuffer(1);
+        gl.glGenVertexArrays(1, ids);
+        vao = ids.get(0);
+        quadVbo = gl.glGenBuffer();
+        instanceVbo = gl.glGenBuffer();
+
+        // triangle strip covering the unit square
+        FloatBuffer quad = BufferUtils.newFloatBuffer(8);
+        quad.put(new float[]{0, 0, 1, 0, 0, 1, 1, 1});
+        quad.flip();
+
+        gl.glBindVertexArray(vao);
+        gl.glBindBuffer(GL20.GL_ARRAY_BUFFER, quadVbo);
+        gl.glBufferData(GL20.GL_ARRAY_BUFFER, 8 * 4, quad, GL20.GL_STATIC_DRAW);
+        enableAttribute(gl, "a_corner", 2, 0, 0, 0);
+
+        final int stride = FLOATS_PER_SPRITE * 4;
+        gl.glBindBuffer(GL20.GL_ARRAY_BUFFER, instanceVbo);
+        gl.glBufferData(GL20.GL_ARRAY_BUFFER, maxSprites * stride, null, GL20.GL_STREAM_DRAW);
+        enableAttribute(gl, "a_rect", 4, stride, 0, 1);
+        enableAttribute(gl, "a_angle", 1, stride, 4 * 4, 1);
+        enableAttribute(gl, "a_uv", 4, stride, 5 * 4, 1);
+
+        gl.glBindVertexArray(0);
+        gl.glBindBuffer(GL20.GL_ARRAY_BUFFER, 0);
+    }
+
+    private void enableAttribute(GL30 gl, String name, int size, int stride, int offset, int divisor) {
+        int location = shader.getAttributeLocation(name);
+        if (location < 0) {
+            return;  // optimised out by the shader compiler
+        }
+        gl.glEnableVertexAttribArray(location);
+        gl.glVertexAttribPointer(location, size, GL20.GL_FLOAT, false, stride, offset);
+        gl.glVertexAttribDivisor(location, divisor);
+    }
+
+    @Override
+    public void begin(Matrix4 projection) {
+        if (drawing) {
+            throw new IllegalStateException("MeshSpriteRenderer.end must be called before begin.");
+        }
+        drawing = true;
+        renderCalls = 0;
+        lastTexture = null;
+        spriteCount = 0;
+        buffer.clear();
+
+        Gdx.gl.glDepthMask(false);
+        Gdx.gl.glEnable(GL20.GL_BLEND);
+        Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        shader.begin();
+        shader.setUniformMatrix("u_projTrans", projection);
+        shader.setUniformi("u_texture", 0);
+    }
+
+    @Override
+    public void draw(TextureRegion t, float x, float y, float scale, float angle) {
+        Texture texture = t.getTexture();
+        if (texture != lastTexture || spriteCount == maxSprites) {
+            flush();
+            lastTexture = texture;
+        }
+        float width = t.getRegionWidth() * scale;
+        float height = t.getRegionHeight() * scale;
+        float radians = angle * MathUtils.degreesToRadians;
+        float u = t.getU(), v = t.getV(), u2 = t.getU2(), v2 = t.getV2();
+
+        FloatBuffer b = buffer;
+        if (instanced) {
+            b.put(x).put(y).put(width).put(height).put(radians).put(u).put(v).put(u2).put(v2);
+        } else {
+            b.put(0).put(0).put(x).put(y).put(width).put(height).put(radians).put(u).put(v).put(u2).put(v2);
+            b.put(1).put(0).put(x).put(y).put(width).put(height).put(radians).put(u).put(v).put(u2).put(v2);
+            b.put(1).put(1).put(x).put(y).put(width).put(height).put(radians).put(u).put(v).put(u2).put(v2);
+            b.put(0).put(1).put(x).put(y).put(width).put(height).put(radians).put(u).put(v).put(u2).put(v2);
+        }
+        spriteCount++;
+    }
+
+    private void flush() {
+        if (spriteCount == 0) {
+            return;
+        }
+        lastTexture.bind(0);
+        buffer.flip();
+        if (instanced) {
+            GL30 gl = Gdx.gl30;
+            gl.glBindVertexArray(vao);
+            gl.glBindBuffer(GL20.GL_ARRAY_BUFFER, instanceVbo);
+            gl.glBufferData(GL20.GL_ARRAY_BUFFER, spriteCount * FLOATS_PER_SPRITE * 4, buffer, GL20.GL_STREAM_DRAW);
+            gl.glDrawArraysInstanced(GL20.GL_TRIANGLE_STRIP, 0, 4, spriteCount);
+            gl.glBindVertexArray(0);
+            gl.glBindBuffer(GL20.GL_ARRAY_BUFFER, 0);
+        } else {
+            mesh.getVerticesBuffer();  // buffer is the mesh's own vertex buffer; fetching it marks it for upload
+            mesh.render(shader, GL20.GL_TRIANGLES, 0, spriteCount * 6);
+        }
+        renderCalls++;
+        maxSpritesInBatch = Math.max(maxSpritesInBatch, spriteCount);
+        spriteCount = 0;
+        buffer.clear();
+    }
+
+    @Override
+    public void end() {
+        if (!drawing) {
+            throw new IllegalStateException("MeshSpriteRenderer.begin must be called before end.");
+        }
+        flush();
+        drawing = false;
+        shader.end();
+        Gdx.gl.glDepthMask(true);
+        Gdx.gl.glDisable(GL20.GL_BLEND);
+    }
+
+    public boolean isInstanced() {
+        return instanced;
+    }
+
+    @Override
+    public int getRenderCalls() {
+        return renderCalls;
+    }
+
+    @Override
+    public int getMaxSpritesInBatch() {
+        return maxSpritesInBatch;
+    }
+
+    @Override
+    public void resetMaxSpritesInBatch() {
+        maxSpritesInBatch = 0;
+    }
+
+    @Override
+    public void dispose() {
+        shader.dispose();
+        if (mesh != null) {
+            mesh.dispose();
+        }
+        if (instanced) {
+            GL30 gl = Gdx.gl30;
+            IntBuffer ids = BufferUtils.newIntBuffer(1);
+            ids.put(vao).flip();
+            gl.glDeleteVertexArrays(1, ids);
+            gl.glDeleteBuffer(quadVbo);
+            gl.glDeleteBuffer(instanceVbo);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package io.github.emergentorganization.emergent2dcore.systems.render;
+
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.ParticleEffect;
+import com.badlogic.gdx.graphics.g2d.ParticleEffectPool;
+import com.badlogic.gdx.graphics.g2d.ParticleEffectPool.PooledEffect;
+import com.badlogic.gdx.utils.ObjectMap;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Particle effects with no parent entity (explosions etc.), drawn by the RenderSystem.
+ * Effects are obtained from a ParticleEffectPool per registered effect type and returned to it on completion.
+ * Active effects are kept in spawn order in a ring, so they are drawn oldest first and,
+ * when more than maxActive effects are alive, the oldest one is evicted from its head to make room.
+ */
+public class OrphanParticleEffects {
+    public static final int DEFAULT_MAX_ACTIVE = 256;
+
+    private final Logger logger = LogManager.getLogger(getClass());
+
+    private final ObjectMap<String, ParticleEffectPool> pools = new ObjectMap<String, ParticleEffectPool>();
+    private ParticleEffect[] active = new ParticleEffect[32];  // ring, oldest at head
+    private int head = 0;
+    private int activeCount = 0;
+    private int maxActive = DEFAULT_MAX_ACTIVE;
+    private int evictedTotal = 0;
+    private int evictedSinceDraw = 0;
+
+    /**
+     * Registers a pool for an effect type.
+     * @param type key used to spawn the effect
+     * @param prototype loaded effect that pooled instances are copied from
+     * @param initialCapacity number of instances to allocate up front
+     * @param max maximum number of free instances kept by the pool
+     */
+    public void registerType(String type, ParticleEffect prototype, int initialCapacity, int max) {
+        ParticleEffectPool pool = new ParticleEffectPool(prototype, initialCapacity, max);
+        pools.put(type, pool);
+    }
+
+    /**
+     * Spawns a pooled effect of a registered type.
+     * The effect goes back to its pool once it completes or is evicted, and may then be handed out by another spawn,
+     * so only use it in the frame it was spawned in (e.g. to adjust its emitters); there is no telling later on
+     * whether it is still this spawn's.
+     * @return the started effect, or null if the type has not been registered
+     */
+    public PooledEffect spawn(String type, float x, float y) {
+        ParticleEffectPool pool = pools.get(type);
+        if (pool == null) {
+            logger.error("cannot spawn particle effect; type '" + type + "' not registered");
+            return null;
+        }
+        PooledEffect effect = pool.obtain();
+        effect.setPosition(x, y);
+        effect.start();
+        add(effect);
+        return effect;
+    }
+
+    /**
+     * Adds an effect to be drawn until it completes. Effects not obtained from a pool are disposed on completion.
+     */
+    public void add(ParticleEffect effect) {
+        while (activeCount >= maxActive) {
+            evictOldest();
+        }
+        if (activeCount == active.length) {
+            grow();
+        }
+        active[(head + activeCount) & (active.length - 1)] = effect;
+        activeCount++;
+    }
+
+    /**
+     * Updates and draws all active effects, releasing those that have completed.
+     * @return number of effects evicted since the last call
+     */
+    public int updateAndDraw(Batch batch, float delta) {
+        // completed effects are released and the rest moved up behind one another, keeping their order
+        int mask = active.length - 1;
+        int kept = 0;
+        for (int i = 0; i < activeCount; i++) {
+            int index = (head + i) & mask;
+            ParticleEffect effect = active[index];
+            active[index] = null;
+            if (effect.isComplete()) {
+                release(effect);
+            } else {
+                effect.update(delta);
+                effect.draw(batch);
+                active[(head + kept) & mask] = effect;
+                kept++;
+            }
+        }
+        activeCount = kept;
+        int evicted = evictedSinceDraw;
+        evictedSinceDraw = 0;
+        return evicted;
+    }
+
+    private void evictOldest() {
+        release(active[head]);
+        active[head] = null;
+        head = (head + 1) & (active.length - 1);
+        activeCount--;
+        evictedTotal++;
+        evictedSinceDraw++;
+    }
+
+    private void grow() {
+        // unrolled from the head, so the ring starts at 0 again; the length stays a power of two
+        ParticleEffect[] grown = new ParticleEffect[active.length * 2];
+        for (int i = 0; i < activeCount; i++) {
+            grown[i] = active[(head + i) & (active.length - 1)];
+        }
+        active = grown;
+        head = 0;
+    }
+
+    private void release(ParticleEffect effect) {
+        if (effect instanceof PooledEffect) {
+            ((PooledEffect) effect).free();
+        } else {
+            effect.dispose();
+        }
+    }
+
+    /**
+     * Releases all active effects.
+     */
+    public void clear() {
+        for (int i = 0; i < activeCount; i++) {
+            int index = (head + i) & (active.length - 1);
+            release(active[index]);
+            active[index] = null;
+        }
+        head = 0;
+        activeCount = 0;
+    }
+
+    public void setMaxActive(int maxActive) {
+        this.maxActive = Math.max(1, maxActive);
+    }
+
+    public int getActiveCount() {
+        return activeCount;
+    }
+
+    /**
+     * @return number of free instances currently held by all pools
+     */
+    public int getPooledCount() {
+        int pooled = 0;
+        for (ParticleEffectPool pool : pools.values()) {
+            pooled += pool.getFree();
+        }
+        return pooled;
+    }
+
+    public int getEvictedTotal() {
+        return evictedTotal;
+    }
+}
@@ -0,0 +1,320 @@
+package io.github.emergentorganization.emergent2dcore.systems.render;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.IntMap;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Ordered list of PostProcessEffects applied to the rendered scene.
+ * The scene is drawn into a scene buffer; each enabled effect then reads the previous pass's output and writes into
+ * one of a pair of ping-pong buffers at the effect's resolution. The last full-resolution pass draws straight to the
+ * screen. Buffers are allocated on first use and reallocated by resize().
+ * The scene may be rendered at a fraction of the screen resolution (see setSceneScale); it is then upscaled by the
+ * first pass, or by the final copy to the screen.
+ */
+public class PostProcessChain implements Disposable {
+    private final Logger logger = LogManager.getLogger(getClass());
+
+    private final Array<PostProcessEffect> effects = new Array<PostProcessEffect>();
+    private final SpriteBatch batch = new SpriteBatch();
+    private final Matrix4 projection = new Matrix4();
+    private int width, height;
+
+    private FrameBuffer scene;  // has a depth buffer, unlike the pass targets
+    private final TextureRegion sceneRegion = new TextureRegion();
+    private float sceneScale = 1f;
+    private final IntMap<PingPong> targets = new IntMap<PingPong>();  // by downsample factor
+
+    private GpuTimer timer;
+    private boolean timingEnabled = false;
+    private int passes;
+
+    private static class PingPong {
+        final FrameBuffer[] buffers = new FrameBuffer[2];
+        final TextureRegion[] regions = {new TextureRegion(), new TextureRegion()};
+        int next = 0;
+    }
+
+    public PostProcessChain(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Appends an effect; the chain disposes it when the chain is disposed.
+     */
+    public void add(PostProcessEffect effect) {
+        effects.add(effect);
+    }
+
+    public void insert(int index, PostProcessEffect effect) {
+        effects.insert(index, effect);
+    }
+
+    /**
+     * Removes an effect without disposing it.
+     * @return false if the effect was not in the chain
+     */
+    public boolean remove(PostProcessEffect effect) {
+        return effects.removeValue(effect, true);
+    }
+
+    public int size() {
+        return effects.size;
+    }
+
+    public PostProcessEffect get(int index) {
+        return effects.get(index);
+    }
+
+    public boolean hasEnabledEffects() {
+        return lastEnabledIndex() != -1;
+    }
+
+    /**
+     * Sets the fraction of the screen resolution the scene is rendered at.
+     * The scene buffer keeps its full size; only the part drawn into shrinks, so changing the scale allocates nothing.
+     */
+    public void setSceneScale(float scale) {
+        if (scale <= 0 || scale > 1) {
+            throw new IllegalArgumentException("scene scale must be in (0, 1]: " + scale);
+        }
+        if (scale != sceneScale) {
+            sceneScale = scale;
+            if (scene != null) {
+                setRegion(sceneRegion, scene);
+            }
+        }
+    }
+
+    public float getSceneScale() {
+        return sceneScale;
+    }
+
+    public int getSceneWidth() {
+        return Math.max(1, Math.round(width * sceneScale));
+    }
+
+    public int getSceneHeight() {
+        return Math.max(1, Math.round(height * sceneScale));
+    }
+
+    /**
+     * Binds the scene buffer, limited to the scaled scene size.
+     */
+    public void beginScene() {
+        getSceneBuffer().begin();
+        Gdx.gl.glViewport(0, 0, getSceneWidth(), getSceneHeight());
+    }
+
+    public void endScene() {
+        scene.end();
+    }
+
+    /**
+     * Reallocates the buffers for a new screen size. Does nothing if the size is unchanged or empty (minimized window).
+     */
+    public void resize(int width, int height) {
+        if ((width == this.width && height == this.height) || width <= 0 || height <= 0) {
+            return;
+        }
+        logger.debug("post-processing resized to " + width + "x" + height);
+        this.width = width;
+        this.height = height;
+        disposeBuffers();
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return full-resolution buffer the scene is drawn into before processing
+     */
+    public FrameBuffer getSceneBuffer() {
+        if (scene == null) {
+            scene = new FrameBuffer(Pixmap.Format.RGBA8888, width, height, true);
+            scene.getColorBufferTexture().setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
+            setRegion(sceneRegion, scene);
+        }
+        return scene;
+    }
+
+    /**
+     * Runs every enabled effect over the scene buffer and presents the result on the screen.
+     * With no enabled effect the scene buffer is copied to the screen as is.
+     */
+    public void process() {
+        final int last = lastEnabledIndex();
+        getSceneBuffer();
+        if (timingEnabled) {
+            if (timer == null || timer.getTimerCount() < effects.size) {
+                if (timer != null) {
+                    timer.dispose();
+                }
+                timer = new GpuTimer(Math.max(effects.size, 4));
+            }
+            timer.beginFrame();
+        }
+
+        passes = 0;
+        TextureRegion input = sceneRegion;
+        boolean onScreen = false;
+        for (int i = 0; i <= last; i++) {
+            PostProcessEffect effect = effects.get(i);
+            if (!effect.isEnabled()) {
+                continue;
+            }
+            int downsample = effect.getDownsample();
+            onScreen = i == last && downsample == PostProcessEffect.FULL_RESOLUTION;
+            int w = onScreen ? width : Math.max(1, width / downsample);
+            int h = onScreen ? height : Math.max(1, height / downsample);
+
+            PingPong target = null;
+            if (onScreen) {
+                Gdx.gl.glViewport(0, 0, w, h);
+            } else {
+                target = getTarget(downsample, w, h);
+                target.buffers[target.next].begin();
+            }
+            Gdx.gl.glClearColor(0, 0, 0, 1);
+            Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+            projection.setToOrtho2D(0, 0, w, h);
+            batch.setProjectionMatrix(projection);
+
+            if (timingEnabled) {
+                timer.begin(i);
+            }
+            effect.render(input, sceneRegion, batch, w, h);
+            if (timingEnabled) {
+                timer.end();
+            }
+
+            if (target != null) {
+                target.buffers[target.next].end();
+                input = target.regions[target.next];
+                target.next ^= 1;  // the next pass at this resolution must not overwrite its own input
+            }
+            passes++;
+        }
+
+        if (!onScreen) {
+            blitToScreen(input);
+        }
+    }
+
+    private void blitToScreen(TextureRegion region) {
+        Gdx.gl.glViewport(0, 0, width, height);
+        Gdx.gl.glClearColor(0, 0, 0, 1);
+        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+        projection.setToOrtho2D(0, 0, width, height);
+        batch.setProjectionMatrix(projection);
+        batch.begin();
+        batch.draw(region, 0, 0, width, height);
+        batch.end();
+    }
+
+    /**
+     * @return number of effect passes run by the last process()
+     */
+    public int getPassCount() {
+        return passes;
+    }
+
+    /**
+     * Measures the GPU time of each pass with timer queries, if the context supports them.
+     */
+    public void setTimingEnabled(boolean enabled) {
+        timingEnabled = enabled && GpuTimer.isSupported();
+        if (enabled && !timingEnabled) {
+            logger.info("GL timer queries not supported; post-processing passes will not be timed");
+        }
+    }
+
+    public boolean isTimingEnabled() {
+        return timingEnabled;
+    }
+
+    /**
+     * @return GPU time of the effect at the given index in nanoseconds, as measured a few frames ago;
+     * GpuTimer.UNKNOWN if it has not been measured
+     */
+    public long getGpuTimeNanos(int effectIndex) {
+        if (timer == null || effectIndex >= timer.getTimerCount()) {
+            return GpuTimer.UNKNOWN;
+        }
+        return timer.getElapsedNanos(effectIndex);
+    }
+
+    private int lastEnabledIndex() {
+        for (int i = effects.size - 1; i >= 0; i--) {
+            if (effects.get(i).isEnabled()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private PingPong getTarget(int downsample, int w, int h) {
+        PingPong target = targets.get(downsample);
+        if (target == null) {
+            target = new PingPong();
+            for (int i = 0; i < 2; i++) {
+                target.buffers[i] = new FrameBuffer(Pixmap.Format.RGBA8888, w, h, false);
+                target.buffers[i].getColorBufferTexture().setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
+                setRegion(target.regions[i], target.buffers[i]);
+            }
+            targets.put(downsample, target);
+        }
+        return target;
+    }
+
+    private void setRegion(TextureRegion region, FrameBuffer buffer) {
+        Texture texture = buffer.getColorBufferTexture();
+        if (buffer == scene) {
+            region.setRegion(texture, 0, 0, getSceneWidth(), getSceneHeight());  // the bottom-left part drawn into
+        } else {
+            region.setRegion(texture);
+        }
+        region.flip(false, true); // FBO uses lower left, TextureRegion uses upper-left
+    }
+
+    private void disposeBuffers() {
+        if (scene != null) {
+            scene.dispose();
+            scene = null;
+        }
+        for (PingPong target : targets.values()) {
+            target.buffers[0].dispose();
+            target.buffers[1].dispose();
+        }
+        targets.clear();
+    }
+
+    @Override
+    public void dispose() {
+        disposeBuffers();
+        for (PostProcessEffect effect : effects) {
+            effect.dispose();
+        }
+        effects.clear();
+        if (timer != null) {
+            timer.dispose();
+        }
+        batch.dispose();
+    }
+}
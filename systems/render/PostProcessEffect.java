@@ -0,0 +1,33 @@
+package io.github.emergentorganization.emergent2dcore.systems.render;
+
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Disposable;
+
+/**
+ * One pass of a PostProcessChain.
+ * The chain binds the pass's target (an intermediate buffer or the screen) before calling render().
+ */
+public interface PostProcessEffect extends Disposable {
+    int FULL_RESOLUTION = 1;
+    int HALF_RESOLUTION = 2;
+    int QUARTER_RESOLUTION = 4;
+
+    /**
+     * @return factor the pass's target is reduced by: FULL_RESOLUTION, HALF_RESOLUTION or QUARTER_RESOLUTION
+     */
+    int getDownsample();
+
+    /**
+     * Disabled effects are skipped; if no effect is enabled the scene is drawn straight to the screen.
+     */
+    boolean isEnabled();
+
+    /**
+     * Draws the pass into the bound target.
+     * @param input output of the previous pass, or the scene for the first pass
+     * @param scene the unprocessed scene, for passes which composite with it (e.g. bloom)
+     * @param batch not drawing; its projection covers the target as (0, 0, width, height)
+     */
+    void render(TextureRegion input, TextureRegion scene, SpriteBatch batch, int width, int height);
+}
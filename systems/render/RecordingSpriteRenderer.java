@@ -0,0 +1,89 @@
+package io.github.emergentorganization.emergent2dcore.systems.render;
+
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+
+/**
+ * Headless SpriteRenderer which records submitted draw commands instead of drawing them.
+ * Needs no GL context, so draw order can be verified in tests.
+ */
+public class RecordingSpriteRenderer implements SpriteRenderer {
+    public final Matrix4 projection = new Matrix4();
+    public final Array<TextureRegion> regions = new Array<TextureRegion>();
+    public final FloatArray x = new FloatArray();
+    public final FloatArray y = new FloatArray();
+    public final FloatArray scale = new FloatArray();
+    public final FloatArray angle = new FloatArray();
+    private int begins = 0;
+    private boolean drawing = false;
+
+    @Override
+    public void begin(Matrix4 projection) {
+        if (drawing) {
+            throw new IllegalStateException("end must be called before begin.");
+        }
+        drawing = true;
+        begins++;
+        this.projection.set(projection);
+    }
+
+    @Override
+    public void draw(TextureRegion region, float x, float y, float scale, float angle) {
+        if (!drawing) {
+            throw new IllegalStateException("begin must be called before draw.");
+        }
+        regions.add(region);
+        this.x.add(x);
+        this.y.add(y);
+        this.scale.add(scale);
+        this.angle.add(angle);
+    }
+
+    @Override
+    public void end() {
+        if (!drawing) {
+            throw new IllegalStateException("begin must be called before end.");
+        }
+        drawing = false;
+    }
+
+    /**
+     * @return number of sprites recorded since the last clear()
+     */
+    public int size() {
+        return regions.size;
+    }
+
+    public int getBeginCount() {
+        return begins;
+    }
+
+    public void clear() {
+        regions.clear();
+        x.clear();
+        y.clear();
+        scale.clear();
+        angle.clear();
+        begins = 0;
+    }
+
+    @Override
+    public int getRenderCalls() {
+        return 0;
+    }
+
+    @Override
+    public int getMaxSpritesInBatch() {
+        return 0;
+    }
+
+    @Override
+    public void resetMaxSpritesInBatch() {
+    }
+
+    @Override
+    public void dispose() {
+    }
+}
@@ -0,0 +1,225 @@
+package io.github.emergentorganization.emergent2dcore.systems.render;
+
+import com.artemis.utils.IntBag;
+import io.github.emergentorganization.cellrpg.core.RenderIndex;
+
+import java.util.Arrays;
+
+/**
+ * Draw-order structure for the RenderSystem.
+ * Entity ids are kept in one primitive bucket per RenderIndex, so iteration does not box.
+ * Within a layer, entities are ordered by a float sort key (lowest first). Keys are kept in arrays parallel
+ * to each layer's bag and the layer is re-sorted lazily with an insertion sort, which is close to O(n) when
+ * only a few entries are out of place.
+ * Each entry's key is packed into a long together with a sequence number taken when it was inserted, so
+ * entities with equal keys (e.g. sharing a texture) stay in insertion order even though removal is O(1),
+ * swapping the last entry into the freed slot.
+ */
+public class RenderLayers {
+    private static final int NOT_PRESENT = -1;
+
+    private static final float UNSORTED = Float.MAX_VALUE;
+    private static final long SEQUENCE_MASK = 0xffffffffL;
+
+    private final IntBag[] layers;
+    private final long[][] keys;         // layer ordinal -> packed sort key and sequence per slot, see pack()
+    private final boolean[] dirty;       // layer ordinal -> needs sorting
+    private int[] layerOf = new int[128];  // entity id -> layer ordinal
+    private int[] slotOf = new int[128];   // entity id -> index within its layer
+    private int size = 0;
+    private int nextSequence = 0;
+
+    public RenderLayers() {
+        layers = new IntBag[RenderIndex.values().length];
+        keys = new long[layers.length][];
+        dirty = new boolean[layers.length];
+        for (int i = 0; i < layers.length; i++) {
+            layers[i] = new IntBag();
+            keys[i] = new long[64];
+        }
+        Arrays.fill(layerOf, NOT_PRESENT);
+    }
+
+    public void insert(int entityId, RenderIndex index) {
+        ensureCapacity(entityId);
+        if (layerOf[entityId] != NOT_PRESENT) {
+            remove(entityId);
+        }
+        if (nextSequence == Integer.MAX_VALUE) {
+            renumber();
+        }
+        int ordinal = index.ordinal();
+        IntBag layer = layers[ordinal];
+        int slot = layer.size();
+        if (slot >= keys[ordinal].length) {
+            keys[ordinal] = Arrays.copyOf(keys[ordinal], keys[ordinal].length * 2);
+        }
+        keys[ordinal][slot] = pack(UNSORTED, nextSequence++);  // goes last until a key is assigned
+        layerOf[entityId] = ordinal;
+        slotOf[entityId] = slot;
+        layer.add(entityId);
+        size++;
+    }
+
+    public void remove(int entityId) {
+        if (!contains(entityId)) {
+            return;
+        }
+        int ordinal = layerOf[entityId];
+        IntBag layer = layers[ordinal];
+        int slot = slotOf[entityId];
+        int last = layer.size() - 1;
+        if (slot != last) {
+            int[] ids = layer.getData();
+            long[] k = keys[ordinal];
+            ids[slot] = ids[last];
+            k[slot] = k[last];  // carries its sequence, so sort() puts it back among its equals
+            slotOf[ids[slot]] = slot;
+            dirty[ordinal] = true;
+        }
+        layer.setSize(last);
+        layerOf[entityId] = NOT_PRESENT;
+        size--;
+    }
+
+    public boolean contains(int entityId) {
+        return entityId < layerOf.length && layerOf[entityId] != NOT_PRESENT;
+    }
+
+    /**
+     * Moves the entity to the given layer if it is not already there.
+     * @return true if the entity changed layers
+     */
+    public boolean update(int entityId, RenderIndex index) {
+        if (contains(entityId) && layerOf[entityId] == index.ordinal()) {
+            return false;
+        }
+        insert(entityId, index);
+        return true;
+    }
+
+    /**
+     * Sets the key used to order the entity within its layer. The layer is re-sorted on the next call to sort().
+     */
+    public void setSortKey(int entityId, float key) {
+        if (!contains(entityId)) {
+            return;
+        }
+        setSortKeyAt(layerOf[entityId], slotOf[entityId], key);
+    }
+
+    /**
+     * Sets the sort key of whatever entity is at the given slot of a layer.
+     * Cheaper than {@link #setSortKey(int, float)} when refreshing every key of a layer in slot order.
+     */
+    public void setSortKeyAt(int ordinal, int slot, float key) {
+        long[] k = keys[ordinal];
+        long packed = pack(key, k[slot] & SEQUENCE_MASK);
+        if (k[slot] != packed) {
+            k[slot] = packed;
+            dirty[ordinal] = true;
+        }
+    }
+
+    /**
+     * Re-sorts the given layer by sort key if any key changed or an entity was removed since the last sort.
+     * Equal keys are ordered by insertion, as the sequence numbers packed with them differ.
+     * @return true if the layer was dirty
+     */
+    public boolean sort(int ordinal) {
+        if (!dirty[ordinal]) {
+            return false;
+        }
+        dirty[ordinal] = false;
+
+        IntBag layer = layers[ordinal];
+        int[] ids = layer.getData();
+        long[] k = keys[ordinal];
+        int n = layer.size();
+        int firstMoved = n;
+        for (int i = 1; i < n; i++) {
+            long key = k[i];
+            if (k[i - 1] <= key) {
+                continue;
+            }
+            int id = ids[i];
+            int j = i - 1;
+            while (j >= 0 && k[j] > key) {
+                k[j + 1] = k[j];
+                ids[j + 1] = ids[j];
+                j--;
+            }
+            k[j + 1] = key;
+            ids[j + 1] = id;
+            firstMoved = Math.min(firstMoved, j + 1);
+        }
+        for (int i = firstMoved; i < n; i++) {
+            slotOf[ids[i]] = i;
+        }
+        return true;
+    }
+
+    /**
+     * Packs a sort key and a sequence number into one long whose signed order is that of the key,
+     * then of the sequence.
+     */
+    private static long pack(float key, long sequence) {
+        int bits = Float.floatToIntBits(key);
+        bits ^= (bits >> 31) & 0x7fffffff;  // negative floats count down, so their signed int order matches
+        return (long) bits << 32 | sequence;
+    }
+
+    /**
+     * Hands out the sequence numbers again from 0, keeping the current order of every layer.
+     */
+    private void renumber() {
+        nextSequence = 0;
+        for (int ordinal = 0; ordinal < layers.length; ordinal++) {
+            sort(ordinal);
+            long[] k = keys[ordinal];
+            for (int i = 0, n = layers[ordinal].size(); i < n; i++) {
+                k[i] = (k[i] & ~SEQUENCE_MASK) | nextSequence++;
+            }
+        }
+    }
+
+    public int getLayerCount() {
+        return layers.length;
+    }
+
+    /**
+     * Returns the backing bag of a layer. Do not modify it; use insert/remove instead.
+     */
+    public IntBag getLayer(int ordinal) {
+        return layers[ordinal];
+    }
+
+    public int getLayerOrdinal(int entityId) {
+        return contains(entityId) ? layerOf[entityId] : NOT_PRESENT;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Appends the entity ids of a layer, in draw order, to the given bag.
+     */
+    public void appendLayer(int ordinal, IntBag out) {
+        IntBag layer = layers[ordinal];
+        int[] ids = layer.getData();
+        for (int i = 0, s = layer.size(); i < s; i++) {
+            out.add(ids[i]);
+        }
+    }
+
+    private void ensureCapacity(int entityId) {
+        if (entityId >= layerOf.length) {
+            int newLength = Math.max(layerOf.length * 2, entityId + 1);
+            int oldLength = layerOf.length;
+            layerOf = Arrays.copyOf(layerOf, newLength);
+            slotOf = Arrays.copyOf(slotOf, newLength);
+            Arrays.fill(layerOf, oldLength, newLength, NOT_PRESENT);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package io.github.emergentorganization.emergent2dcore.systems.render;
+
+import com.artemis.utils.IntBag;
+import io.github.emergentorganization.cellrpg.core.RenderIndex;
+import org.junit.Test;
+
+/**
+ */
+public class RenderLayersTest {
+    private static final int LAYER = RenderIndex.BACKGROUND.ordinal();
+
+    private static RenderLayers layersOf(int... ids) {
+        RenderLayers layers = new RenderLayers();
+        for (int id : ids) {
+            layers.insert(id, RenderIndex.BACKGROUND);
+            layers.setSortKey(id, id % 2);  // two groups of equal keys, as for two textures
+        }
+        layers.sort(LAYER);
+        return layers;
+    }
+
+    private static boolean inOrder(RenderLayers layers, int... expected) {
+        IntBag layer = layers.getLayer(LAYER);
+        if (layer.size() != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (layer.get(i) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Test
+    public void testRemovalKeepsOrderOfEqualKeys() {
+        RenderLayers layers = layersOf(2, 4, 6, 8, 1, 3, 5);
+        layers.remove(4);
+        layers.sort(LAYER);
+        assert inOrder(layers, 2, 6, 8, 1, 3, 5);
+        layers.remove(1);
+        layers.insert(10, RenderIndex.BACKGROUND);
+        layers.setSortKey(10, 0);
+        layers.sort(LAYER);
+        assert inOrder(layers, 2, 6, 8, 10, 3, 5);
+        layers.setSortKey(3, -1);  // slots are still right after swapping
+        layers.sort(LAYER);
+        assert inOrder(layers, 3, 2, 6, 8, 10, 5);
+    }
+
+    @Test
+    public void testNegativeKeysSortBeforePositiveOnes() {
+        RenderLayers layers = new RenderLayers();
+        float[] keys = {2.5f, -1, 0, -3.5f, 1, -0.25f};
+        for (int id = 0; id < keys.length; id++) {
+            layers.insert(id, RenderIndex.BACKGROUND);
+            layers.setSortKey(id, keys[id]);  // as depth keys, -y
+        }
+        layers.sort(LAYER);
+        assert inOrder(layers, 3, 1, 5, 2, 4, 0);
+        layers.remove(3);
+        layers.sort(LAYER);
+        assert inOrder(layers, 1, 5, 2, 4, 0);
+    }
+}
@@ -0,0 +1,102 @@
+package io.github.emergentorganization.emergent2dcore.systems.render;
+
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Matrix4;
+
+import java.util.Arrays;
+
+/**
+ * Drawable state of one frame, extracted by the RenderSystem so it can be submitted later (possibly on another thread).
+ * Sprites are stored in draw order in parallel primitive arrays; nothing is allocated once the arrays have grown
+ * to the scene's size.
+ */
+public class RenderSnapshot {
+    public final Matrix4 projection = new Matrix4();
+    public final RenderStats stats = new RenderStats();  // of the extraction, published along with the sprites
+
+    private int count = 0;
+    private int[] ids = new int[256];
+    private int[] layers = new int[256];
+    private TextureRegion[] regions = new TextureRegion[256];
+    private float[] x = new float[256];
+    private float[] y = new float[256];
+    private float[] scale = new float[256];
+    private float[] angle = new float[256];
+
+    /**
+     * Clears the snapshot and records the projection it will be drawn with.
+     */
+    public void begin(Matrix4 projection) {
+        this.projection.set(projection);
+        Arrays.fill(regions, 0, count, null);  // don't keep unloaded regions reachable
+        count = 0;
+    }
+
+    public void add(int entityId, int layer, TextureRegion region, float x, float y, float scale, float angle) {
+        if (count == ids.length) {
+            grow();
+        }
+        int i = count++;
+        this.ids[i] = entityId;
+        this.layers[i] = layer;
+        this.regions[i] = region;
+        this.x[i] = x;
+        this.y[i] = y;
+        this.scale[i] = scale;
+        this.angle[i] = angle;
+    }
+
+    /**
+     * Draws every sprite of the snapshot, in order, with the given renderer.
+     */
+    public void submitTo(SpriteRenderer renderer) {
+        renderer.begin(projection);
+        for (int i = 0; i < count; i++) {
+            renderer.draw(regions[i], x[i], y[i], scale[i], angle[i]);
+        }
+        renderer.end();
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int getEntityId(int index) {
+        return ids[index];
+    }
+
+    public int getLayer(int index) {
+        return layers[index];
+    }
+
+    public TextureRegion getRegion(int index) {
+        return regions[index];
+    }
+
+    public float getX(int index) {
+        return x[index];
+    }
+
+    public float getY(int index) {
+        return y[index];
+    }
+
+    public float getScale(int index) {
+        return scale[index];
+    }
+
+    public float getAngle(int index) {
+        return angle[index];
+    }
+
+    private void grow() {
+        int length = ids.length * 2;
+        ids = Arrays.copyOf(ids, length);
+        layers = Arrays.copyOf(layers, length);
+        regions = Arrays.copyOf(regions, length);
+        x = Arrays.copyOf(x, length);
+        y = Arrays.copyOf(y, length);
+        scale = Arrays.copyOf(scale, length);
+        angle = Arrays.copyOf(angle, length);
+    }
+}
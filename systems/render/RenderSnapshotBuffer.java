@@ -0,0 +1,84 @@
+package io.github.emergentorganization.emergent2dcore.systems.render;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Double buffer of RenderSnapshots shared by one producer (the simulation thread extracting render state)
+ * and one consumer (the render thread submitting it to GL). Neither side ever blocks:
+ * the producer always writes the buffer that is not published, and if the consumer is still reading
+ * that buffer the producer skips the frame instead of waiting.
+ *
+ * Producer: beginWrite(), fill the snapshot, publish().
+ * Consumer: acquire(), draw it, release().
+ */
+public class RenderSnapshotBuffer {
+    private static final int NONE = -1;
+
+    private final RenderSnapshot[] snapshots = {new RenderSnapshot(), new RenderSnapshot()};
+    private volatile int published = NONE;  // latest complete snapshot
+    private final AtomicInteger reading = new AtomicInteger(NONE);  // snapshot held by the consumer
+    private int writing = NONE;  // producer only
+
+    private volatile int publishedCount = 0;
+    private volatile int droppedCount = 0;
+
+    /**
+     * @return the snapshot to fill, or null if the consumer still holds it; in that case skip this frame
+     */
+    public RenderSnapshot beginWrite() {
+        int target = published == 0 ? 1 : 0;
+        if (reading.get() == target) {
+            droppedCount++;
+            return null;
+        }
+        writing = target;
+        return snapshots[target];
+    }
+
+    /**
+     * Makes the snapshot returned by the last beginWrite() available to the consumer.
+     */
+    public void publish() {
+        if (writing == NONE) {
+            throw new IllegalStateException("beginWrite() must return a snapshot before publish()");
+        }
+        published = writing;
+        writing = NONE;
+        publishedCount++;
+    }
+
+    /**
+     * @return the latest published snapshot, which the producer will not touch until release(); or null if none yet
+     */
+    public RenderSnapshot acquire() {
+        while (true) {
+            int index = published;
+            if (index == NONE) {
+                return null;
+            }
+            reading.set(index);
+            // if a newer snapshot was published in between, the producer may already be rewriting this one
+            if (published == index) {
+                return snapshots[index];
+            }
+        }
+    }
+
+    public void release() {
+        reading.set(NONE);
+    }
+
+    /**
+     * @return number of snapshots published so far
+     */
+    public int getPublishedCount() {
+        return publishedCount;
+    }
+
+    /**
+     * @return number of frames the producer skipped because the consumer was still reading
+     */
+    public int getDroppedCount() {
+        return droppedCount;
+    }
+}
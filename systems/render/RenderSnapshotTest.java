@@ -0,0 +1,65 @@
+package io.github.emergentorganization.emergent2dcore.systems.render;
+
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Matrix4;
+import org.junit.Test;
+
+/**
+ * Verifies snapshot submission order and the double-buffer hand-off without a GL context.
+ */
+public class RenderSnapshotTest {
+
+    @Test
+    public void testSubmitKeepsDrawOrder() {
+        TextureRegion background = new TextureRegion();
+        TextureRegion player = new TextureRegion();
+        RenderSnapshot snapshot = new RenderSnapshot();
+        snapshot.begin(new Matrix4());
+        snapshot.add(7, 0, background, 1, 2, 1, 0);
+        snapshot.add(3, 1, player, 3, 4, 2, 90);
+
+        RecordingSpriteRenderer renderer = new RecordingSpriteRenderer();
+        snapshot.submitTo(renderer);
+
+        assert renderer.getBeginCount() == 1;
+        assert renderer.size() == 2;
+        assert renderer.regions.get(0) == background;
+        assert renderer.regions.get(1) == player;
+        assert renderer.x.get(1) == 3 && renderer.y.get(1) == 4;
+        assert renderer.scale.get(1) == 2 && renderer.angle.get(1) == 90;
+    }
+
+    @Test
+    public void testBeginClearsPreviousFrame() {
+        RenderSnapshot snapshot = new RenderSnapshot();
+        snapshot.begin(new Matrix4());
+        snapshot.add(1, 0, new TextureRegion(), 0, 0, 1, 0);
+        snapshot.begin(new Matrix4());
+        assert snapshot.size() == 0;
+    }
+
+    @Test
+    public void testProducerNeverWritesSnapshotBeingRead() {
+        RenderSnapshotBuffer buffer = new RenderSnapshotBuffer();
+        assert buffer.acquire() == null;
+
+        RenderSnapshot first = buffer.beginWrite();
+        buffer.publish();
+        RenderSnapshot read = buffer.acquire();
+        assert read == first;
+
+        // consumer still holds the first snapshot; producer fills and publishes the other one
+        RenderSnapshot second = buffer.beginWrite();
+        assert second != null && second != first;
+        buffer.publish();
+
+        // the only unpublished snapshot is still being read, so this frame is skipped
+        assert buffer.beginWrite() == null;
+        assert buffer.getDroppedCount() == 1;
+
+        buffer.release();
+        assert buffer.acquire() == second;
+        buffer.release();
+        assert buffer.beginWrite() == first;
+    }
+}
@@ -0,0 +1,57 @@
+package io.github.emergentorganization.emergent2dcore.systems.render;
+
+/**
+ * Per-frame counters collected by the RenderSystem.
+ * Values are reset at the start of every frame, so read them after the world has processed.
+ */
+public class RenderStats {
+    public int drawn;   // entities submitted for drawing
+    public int culled;  // entities skipped because they were outside the camera view
+    public int renderCalls;  // draw calls issued for the frame (one per non-empty flush)
+    public int textureSwitches;  // flushes forced by a change of texture between consecutive sprites
+    public int maxSpritesInBatch;  // largest number of sprites sent in a single draw call
+    public int staticChunksDrawn;  // cached BACKGROUND chunks drawn
+    public int staticChunkRebuilds;  // cached BACKGROUND chunks rebuilt this frame
+    public int activeParticleEffects;  // orphan particle effects alive at the end of the frame
+    public int pooledParticleEffects;  // free particle effects held by the pools
+    public int evictedParticleEffects;  // effects evicted this frame because the active cap was reached
+    public int postProcessPasses;  // post-processing effects run, 0 if the scene was drawn straight to the screen
+
+    public void reset() {
+        drawn = 0;
+        culled = 0;
+        renderCalls = 0;
+        textureSwitches = 0;
+        maxSpritesInBatch = 0;
+        staticChunksDrawn = 0;
+        staticChunkRebuilds = 0;
+        activeParticleEffects = 0;
+        pooledParticleEffects = 0;
+        evictedParticleEffects = 0;
+        postProcessPasses = 0;
+    }
+
+    public void set(RenderStats other) {
+        drawn = other.drawn;
+        culled = other.culled;
+        renderCalls = other.renderCalls;
+        textureSwitches = other.textureSwitches;
+        maxSpritesInBatch = other.maxSpritesInBatch;
+        staticChunksDrawn = other.staticChunksDrawn;
+        staticChunkRebuilds = other.staticChunkRebuilds;
+        activeParticleEffects = other.activeParticleEffects;
+        pooledParticleEffects = other.pooledParticleEffects;
+        evictedParticleEffects = other.evictedParticleEffects;
+        postProcessPasses = other.postProcessPasses;
+    }
+
+    @Override
+    public String toString() {
+        return "drawn:" + drawn + " culled:" + culled + " renderCalls:" + renderCalls
+                + " textureSwitches:" + textureSwitches + " maxSpritesInBatch:" + maxSpritesInBatch
+                + " staticChunks(drawn:" + staticChunksDrawn + " rebuilt:" + staticChunkRebuilds + ")"
+                + " particles(active:" + activeParticleEffects + " pooled:" + pooledParticleEffects
+                + " evicted:" + evictedParticleEffects + ")"
+                + " postProcessPasses:" + postProcessPasses;
+    }
+}
@@ -0,0 +1,114 @@
+package io.github.emergentorganization.emergent2dcore.systems.render;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Chooses the internal resolution scale the scene is rendered at from measured frame times.
+ * Frame times are smoothed with an exponential moving average. The scale drops a step quickly when frames
+ * run over the target and rises a step only after the target has been met for a while.
+ * Raising the scale and then missing the target again doubles the wait before the next rise, so a scene
+ * sitting at the edge (e.g. with vsync on) settles instead of oscillating.
+ */
+public class ResolutionScaleController {
+    private final Logger logger = LogManager.getLogger(getClass());
+
+    public static final float MIN_SCALE = 0.5f;
+    public static final float MAX_SCALE = 1f;
+    public static final float STEP = 0.125f;
+
+    private static final float SMOOTHING = 0.1f;  // weight of the newest frame in the average
+    private static final float MAX_FRAME_RATIO = 4f;  // longer frames (loading, window drag) are clamped to this
+    private static final float DOWN_RATIO = 1.15f;  // step down when the average exceeds the target by this ratio
+    private static final float UP_RATIO = 1.02f;  // step up when the average stays within this ratio of the target
+    private static final int DOWN_HOLD_FRAMES = 15;  // frames over the target before stepping down
+    private static final int UP_HOLD_FRAMES = 120;
+    private static final int MAX_UP_HOLD_FRAMES = UP_HOLD_FRAMES * 16;
+
+    private final float targetFrameTime;
+    private float scale = MAX_SCALE;
+    private float averageFrameTime;
+    private boolean started = false;
+    private int framesSinceChange = 0;
+    private int framesOnTarget = 0;
+    private int framesOverTarget = 0;
+    private int upHoldFrames = UP_HOLD_FRAMES;
+    private boolean lastChangeWasUp = false;
+
+    /**
+     * @param targetFrameTime frame time to maintain, in seconds
+     */
+    public ResolutionScaleController(float targetFrameTime) {
+        if (targetFrameTime <= 0) {
+            throw new IllegalArgumentException("target frame time must be positive: " + targetFrameTime);
+        }
+        this.targetFrameTime = targetFrameTime;
+    }
+
+    /**
+     * Feeds the duration of the last frame.
+     * @param frameTime seconds
+     * @return the scale to render the next frame at, between MIN_SCALE and MAX_SCALE
+     */
+    public float update(float frameTime) {
+        frameTime = Math.min(frameTime, targetFrameTime * MAX_FRAME_RATIO);
+        if (!started) {
+            averageFrameTime = frameTime;
+            started = true;
+        } else {
+            averageFrameTime += (frameTime - averageFrameTime) * SMOOTHING;
+        }
+        framesSinceChange++;
+
+        if (averageFrameTime > targetFrameTime * DOWN_RATIO) {
+            framesOnTarget = 0;
+            framesOverTarget++;
+            if (scale > MIN_SCALE && framesOverTarget >= DOWN_HOLD_FRAMES) {
+                if (lastChangeWasUp && framesSinceChange < upHoldFrames * 2) {
+                    upHoldFrames = Math.min(upHoldFrames * 2, MAX_UP_HOLD_FRAMES);  // the last rise did not hold
+                }
+                setScale(scale - STEP, false);
+            }
+        } else if (averageFrameTime <= targetFrameTime * UP_RATIO) {
+            framesOverTarget = 0;
+            framesOnTarget++;
+            if (scale < MAX_SCALE && framesOnTarget >= upHoldFrames) {
+                setScale(scale + STEP, true);
+            }
+        } else {
+            framesOnTarget = 0;  // between the thresholds; hold the current scale
+            framesOverTarget = 0;
+        }
+        return scale;
+    }
+
+    private void setScale(float newScale, boolean up) {
+        newScale = Math.max(MIN_SCALE, Math.min(MAX_SCALE, newScale));
+        logger.info("resolution scale " + scale + " -> " + newScale + " (avg frame " + averageFrameTime * 1000f
+                + "ms, target " + targetFrameTime * 1000f + "ms)");
+        scale = newScale;
+        framesSinceChange = 0;
+        framesOnTarget = 0;
+        framesOverTarget = 0;
+        lastChangeWasUp = up;
+    }
+
+    public float getScale() {
+        return scale;
+    }
+
+    public float getAverageFrameTime() {
+        return averageFrameTime;
+    }
+
+    public float getTargetFrameTime() {
+        return targetFrameTime;
+    }
+
+    /**
+     * @return frames the target must be met before the scale is raised again
+     */
+    public int getUpHoldFrames() {
+        return upHoldFrames;
+    }
+}
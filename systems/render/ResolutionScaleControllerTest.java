@@ -0,0 +1,67 @@
+package io.github.emergentorganization.emergent2dcore.systems.render;
+
+import org.junit.Test;
+
+/**
+ */
+public class ResolutionScaleControllerTest {
+    private static final float TARGET = 1 / 60f;
+
+    private static float feed(ResolutionScaleController controller, float frameTime, int frames) {
+        float scale = controller.getScale();
+        for (int i = 0; i < frames; i++) {
+            scale = controller.update(frameTime);
+        }
+        return scale;
+    }
+
+    @Test
+    public void testStartsAtFullResolution() {
+        ResolutionScaleController controller = new ResolutionScaleController(TARGET);
+        assert controller.update(TARGET) == ResolutionScaleController.MAX_SCALE;
+    }
+
+    @Test
+    public void testSlowFramesLowerScaleToMinimum() {
+        ResolutionScaleController controller = new ResolutionScaleController(TARGET);
+        float scale = feed(controller, TARGET * 2, 30);
+        assert scale < ResolutionScaleController.MAX_SCALE;
+        scale = feed(controller, TARGET * 2, 1000);
+        assert scale == ResolutionScaleController.MIN_SCALE;
+    }
+
+    @Test
+    public void testFastFramesRestoreFullResolution() {
+        ResolutionScaleController controller = new ResolutionScaleController(TARGET);
+        feed(controller, TARGET * 2, 1000);
+        float scale = feed(controller, TARGET / 2, 10000);
+        assert scale == ResolutionScaleController.MAX_SCALE;
+    }
+
+    @Test
+    public void testHoldsScaleBetweenThresholds() {
+        ResolutionScaleController controller = new ResolutionScaleController(TARGET);
+        feed(controller, TARGET * 2, 40);
+        float scale = feed(controller, TARGET * 1.08f, 100);  // let the average settle
+        assert scale < ResolutionScaleController.MAX_SCALE;
+        assert feed(controller, TARGET * 1.08f, 5000) == scale;
+    }
+
+    @Test
+    public void testSingleHitchIsIgnored() {
+        ResolutionScaleController controller = new ResolutionScaleController(TARGET);
+        feed(controller, TARGET, 100);
+        controller.update(10f);  // e.g. the window was dragged
+        assert feed(controller, TARGET, 1) == ResolutionScaleController.MAX_SCALE;
+    }
+
+    @Test
+    public void testFailedRiseBacksOff() {
+        ResolutionScaleController controller = new ResolutionScaleController(TARGET);
+        feed(controller, TARGET * 2, 40);
+        int hold = controller.getUpHoldFrames();
+        feed(controller, TARGET, hold + 50);  // target met long enough to rise
+        feed(controller, TARGET * 2, 40);  // but the higher resolution cannot hold it
+        assert controller.getUpHoldFrames() == hold * 2;
+    }
+}
@@ -0,0 +1,33 @@
+package io.github.emergentorganization.emergent2dcore.systems.render;
+
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.Disposable;
+
+/**
+ * Backend used by the RenderSystem to submit entity sprites.
+ * Sprites are drawn at their full region size, scaled uniformly and rotated about their bottom-left corner.
+ */
+public interface SpriteRenderer extends Disposable {
+
+    void begin(Matrix4 projection);
+
+    /**
+     * @param angle CCW rotation in degrees
+     */
+    void draw(TextureRegion region, float x, float y, float scale, float angle);
+
+    void end();
+
+    /**
+     * @return draw calls issued since the last begin()
+     */
+    int getRenderCalls();
+
+    /**
+     * @return largest number of sprites submitted in one draw call since the counter was last reset
+     */
+    int getMaxSpritesInBatch();
+
+    void resetMaxSpritesInBatch();
+}
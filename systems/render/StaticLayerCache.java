@@ -0,0 +1,467 @@
+package io.github.emergentorganization.emergent2dcore.systems.render;
+
+import com.artemis.ComponentMapper;
+import com.artemis.utils.IntBag;
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.LongMap;
+import io.github.emergentorganization.cellrpg.core.RenderIndex;
+import io.github.emergentorganization.cellrpg.core.entityfactory.EntityFactory;
+import io.github.emergentorganization.cellrpg.managers.AssetManager;
+import io.github.emergentorganization.emergent2dcore.components.Position;
+import io.github.emergentorganization.emergent2dcore.components.Rotation;
+import io.github.emergentorganization.emergent2dcore.components.Scale;
+import io.github.emergentorganization.emergent2dcore.components.Velocity;
+import io.github.emergentorganization.emergent2dcore.components.Visual;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Caches non-moving BACKGROUND entities in SpriteCaches, one per square chunk of the world.
+ * A chunk is only rebuilt when an entity in it is added, removed or changes;
+ * otherwise drawing it is a single draw call with no per-sprite math.
+ * Chunks are disposed of once their last entity leaves.
+ * Entities that start moving or change their Visual are ejected so the RenderSystem can draw them dynamically,
+ * and re-admitted once they have stood still again for READMIT_FRAMES frames.
+ * Only chunks in view are checked for such changes every frame; the others are checked one per frame,
+ * unless whoever changes an entity off screen calls invalidate() for it, as the movement systems do.
+ * All chunks draw with one shared shader.
+ */
+public class StaticLayerCache implements Disposable {
+    public static final float DEFAULT_CHUNK_SIZE = 512 * EntityFactory.SCALE_WORLD_TO_BOX;
+    public static final int READMIT_FRAMES = 120;
+    private static final int MIN_CHUNK_CAPACITY = 16;
+
+    // SpriteCache.begin() sets all four uniforms of a custom shader, and a pedantic ShaderProgram throws for any
+    // the compiler dropped as unused, so the position is the mean of the two equal products u_projTrans * p and
+    // u_proj * u_trans * p, which keeps every one of them in use
+    private static final String VERTEX_SHADER = "attribute vec4 " + ShaderProgram.POSITION_ATTRIBUTE + ";\n"
+            + "attribute vec4 " + ShaderProgram.COLOR_ATTRIBUTE + ";\n"
+            + "attribute vec2 " + ShaderProgram.TEXCOORD_ATTRIBUTE + "0;\n"
+            + "uniform mat4 u_proj;\n"
+            + "uniform mat4 u_trans;\n"
+            + "uniform mat4 u_projTrans;\n"
+            + "varying vec4 v_color;\n"
+            + "varying vec2 v_texCoords;\n"
+            + "void main() {\n"
+            + "    v_color = " + ShaderProgram.COLOR_ATTRIBUTE + ";\n"
+            + "    v_color.a = v_color.a * (255.0/254.0);\n"
+            + "    v_texCoords = " + ShaderProgram.TEXCOORD_ATTRIBUTE + "0;\n"
+            + "    vec4 p = " + ShaderProgram.POSITION_ATTRIBUTE + ";\n"
+            + "    gl_Position = 0.5 * (u_projTrans * p + u_proj * (u_trans * p));\n"
+            + "}\n";
+    private static final String FRAGMENT_SHADER = "#ifdef GL_ES\n"
+            + "precision mediump float;\n"
+            + "#endif\n"
+            + "varying vec4 v_color;\n"
+            + "varying vec2 v_texCoords;\n"
+            + "uniform sampler2D u_texture;\n"
+            + "void main() {\n"
+            + "    gl_FragColor = v_color * texture2D(u_texture, v_texCoords);\n"
+            + "}\n";
+
+    private final ComponentMapper<Visual> vm;
+    private final ComponentMapper<Position> pm;
+    private final ComponentMapper<Rotation> rm;
+    private final ComponentMapper<Scale> sm;
+    private final ComponentMapper<Velocity> velm;
+    private final AssetManager assetManager;
+    private final float chunkSize;
+
+    private final LongMap<Chunk> chunks = new LongMap<Chunk>();
+    private final ArrayList<Chunk> chunkList = new ArrayList<Chunk>();  // the same chunks, for the off-screen sweep
+    private int sweepIndex = 0;
+    private final IntBag invalidated = new IntBag();
+    private ShaderProgram shader;  // shared by every chunk's SpriteCache, created with the first
+    private Chunk[] chunkOf = new Chunk[128];  // entity id -> chunk holding it
+
+    // state of each cached entity at the time it was added, used to detect changes
+    private float[] cachedX = new float[128];
+    private float[] cachedY = new float[128];
+    private float[] cachedAngle = new float[128];
+    private float[] cachedScale = new float[128];
+    private String[] cachedVisualId = new String[128];
+    private int validationStamp = 0;
+
+    // entities ejected while in the world, watched until they stand still long enough to be re-admitted;
+    // their last seen state is kept in the cached* arrays
+    private final IntBag ejectedIds = new IntBag();
+    private boolean[] watched = new boolean[128];
+    private int[] stillFrames = new int[128];
+
+    private int size = 0;
+    private int rebuilds = 0;
+
+    public StaticLayerCache(ComponentMapper<Visual> vm, ComponentMapper<Position> pm, ComponentMapper<Rotation> rm,
+                            ComponentMapper<Scale> sm, ComponentMapper<Velocity> velm, AssetManager assetManager,
+                            float chunkSize) {
+        this.vm = vm;
+        this.pm = pm;
+        this.rm = rm;
+        this.sm = sm;
+        this.velm = velm;
+        this.assetManager = assetManager;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @return true if the entity can be drawn from the cache: a non-animated BACKGROUND visual that is not moving
+     */
+    public boolean isStatic(int entityId) {
+        Visual v = vm.get(entityId);
+        if (v.index != RenderIndex.BACKGROUND || v.isAnimation) {
+            return false;
+        }
+        return !velm.has(entityId) || velm.get(entityId).velocity.isZero();
+    }
+
+    public void add(int entityId) {
+        ensureCapacity(entityId);
+        recordState(entityId);
+        watched[entityId] = false;
+        Position p = pm.get(entityId);
+        int cx = MathUtils.floor(p.position.x / chunkSize);
+        int cy = MathUtils.floor(p.position.y / chunkSize);
+        long key = ((long) cx << 32) | (cy & 0xffffffffL);
+        Chunk chunk = chunks.get(key);
+        if (chunk == null) {
+            chunk = new Chunk(key);
+            chunks.put(key, chunk);
+            chunkList.add(chunk);
+        }
+        chunk.ids.add(entityId);
+        chunk.dirty = true;
+        chunkOf[entityId] = chunk;
+        size++;
+    }
+
+    /**
+     * Removes the entity for good, e.g. when it leaves the world; it is not watched for re-admission.
+     */
+    public void remove(int entityId) {
+        if (entityId < watched.length) {
+            watched[entityId] = false;
+        }
+        uncache(entityId);
+    }
+
+    private void uncache(int entityId) {
+        if (!contains(entityId)) {
+            return;
+        }
+        Chunk chunk = chunkOf[entityId];
+        chunk.ids.removeValue(entityId);
+        chunk.dirty = true;
+        chunkOf[entityId] = null;
+        cachedVisualId[entityId] = null;
+        size--;
+    }
+
+    public boolean contains(int entityId) {
+        return entityId < chunkOf.length && chunkOf[entityId] != null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Appends the ids of all cached entities to the given bag.
+     */
+    public void appendEntityIds(IntBag out) {
+        for (Chunk chunk : chunks.values()) {
+            IntBag ids = chunk.ids;
+            for (int i = 0, s = ids.size(); i < s; i++) {
+                out.add(ids.get(i));
+            }
+        }
+    }
+
+    /**
+     * Has the next validate() check the entity wherever it is, e.g. after moving it or changing its Visual
+     * while off screen.
+     */
+    public void invalidate(int entityId) {
+        if (contains(entityId)) {
+            invalidated.add(entityId);
+        }
+    }
+
+    /**
+     * Removes entities that no longer qualify as static (moved, started moving, or changed visual/layer).
+     * Checks the invalidated entities, the chunks overlapping the view, and one other chunk in turn.
+     * @param ejected bag receiving the ids of removed entities
+     */
+    public void validate(IntBag ejected, float viewMinX, float viewMinY, float viewMaxX, float viewMaxY) {
+        for (int i = 0, s = invalidated.size(); i < s; i++) {
+            int id = invalidated.get(i);
+            if (contains(id) && hasChanged(id)) {
+                eject(id, ejected);
+            }
+        }
+        invalidated.setSize(0);
+
+        validationStamp++;
+        for (int i = 0, s = chunkList.size(); i < s; i++) {
+            Chunk chunk = chunkList.get(i);
+            if (chunk.dirty || chunk.overlaps(viewMinX, viewMinY, viewMaxX, viewMaxY)) {
+                validate(chunk, ejected);
+            }
+        }
+        if (!chunkList.isEmpty()) {
+            sweepIndex = (sweepIndex + 1) % chunkList.size();
+            validate(chunkList.get(sweepIndex), ejected);
+        }
+        removeEmptyChunks();
+    }
+
+    private void validate(Chunk chunk, IntBag ejected) {
+        if (chunk.validated == validationStamp) {
+            return;
+        }
+        chunk.validated = validationStamp;
+        IntBag ids = chunk.ids;
+        for (int i = ids.size() - 1; i >= 0; i--) {
+            int id = ids.get(i);
+            if (hasChanged(id)) {
+                eject(id, ejected);
+            }
+        }
+    }
+
+    private void eject(int id, IntBag ejected) {
+        uncache(id);
+        ejected.add(id);
+        recordState(id);
+        stillFrames[id] = 0;
+        if (!watched[id]) {
+            watched[id] = true;
+            ejectedIds.add(id);
+        }
+    }
+
+    /**
+     * Collects the ejected entities that have qualified as static, unchanged, on READMIT_FRAMES calls in a row.
+     * They are no longer watched; add() them once they are out of the dynamic render layers.
+     * @param out bag receiving their ids
+     */
+    public void pollReadmissions(IntBag out) {
+        int[] ids = ejectedIds.getData();
+        for (int i = ejectedIds.size() - 1; i >= 0; i--) {
+            int id = ids[i];
+            if (!watched[id]) {
+                ejectedIds.remove(i);  // removed from the world since
+            } else if (hasChanged(id)) {
+                recordState(id);
+                stillFrames[id] = 0;
+            } else if (++stillFrames[id] >= READMIT_FRAMES) {
+                watched[id] = false;
+                ejectedIds.remove(i);
+                out.add(id);
+            }
+        }
+    }
+
+    private void recordState(int id) {
+        Position p = pm.get(id);
+        cachedX[id] = p.position.x;
+        cachedY[id] = p.position.y;
+        cachedAngle[id] = rm.get(id).angle;
+        cachedScale[id] = sm.get(id).scale;
+        cachedVisualId[id] = vm.get(id).id;
+    }
+
+    private boolean hasChanged(int id) {
+        Visual v = vm.get(id);
+        Position p = pm.get(id);
+        String cachedId = cachedVisualId[id];
+        return (v.id != cachedId && (v.id == null || !v.id.equals(cachedId)))
+                || !isStatic(id)
+                || p.position.x != cachedX[id] || p.position.y != cachedY[id]
+                || rm.get(id).angle != cachedAngle[id]
+                || sm.get(id).scale != cachedScale[id];
+    }
+
+    /**
+     * Removes all entities from the cache, and stops watching ejected ones for re-admission.
+     * @param ejected bag receiving the ids of removed entities
+     */
+    public void clear(IntBag ejected) {
+        for (Chunk chunk : chunks.values()) {
+            IntBag ids = chunk.ids;
+            for (int i = ids.size() - 1; i >= 0; i--) {
+                int id = ids.get(i);
+                uncache(id);
+                ejected.add(id);
+            }
+        }
+        removeEmptyChunks();
+        for (int i = 0, s = ejectedIds.size(); i < s; i++) {
+            watched[ejectedIds.get(i)] = false;
+        }
+        ejectedIds.setSize(0);
+    }
+
+    /**
+     * Disposes of the chunks left without entities, so meshes do not pile up over the area explored.
+     */
+    private void removeEmptyChunks() {
+        for (int i = chunkList.size() - 1; i >= 0; i--) {
+            Chunk chunk = chunkList.get(i);
+            if (chunk.ids.size() > 0) {
+                continue;
+            }
+            if (chunk.cache != null) {
+                chunk.cache.dispose();
+            }
+            chunks.remove(chunk.key);
+            int last = chunkList.size() - 1;
+            chunkList.set(i, chunkList.get(last));
+            chunkList.remove(last);
+        }
+    }
+
+    /**
+     * Draws all chunks overlapping the given view rectangle, rebuilding dirty ones first.
+     * Must not be called while a SpriteBatch is drawing.
+     * @return number of chunks drawn
+     */
+    public int draw(Matrix4 projection, float viewMinX, float viewMinY, float viewMaxX, float viewMaxY) {
+        int drawn = 0;
+        for (Chunk chunk : chunks.values()) {
+            if (chunk.ids.size() == 0) {
+                continue;  // emptied since the last validate(), which removes it
+            }
+            if (chunk.dirty) {
+                rebuild(chunk);
+            }
+            if (chunk.cache == null || !chunk.overlaps(viewMinX, viewMinY, viewMaxX, viewMaxY)) {
+                continue;
+            }
+            chunk.cache.setProjectionMatrix(projection);
+            chunk.cache.begin();
+            chunk.cache.draw(chunk.cacheId);
+            chunk.cache.end();
+            drawn++;
+        }
+        return drawn;
+    }
+
+    private void rebuild(Chunk chunk) {
+        IntBag ids = chunk.ids;
+        int count = ids.size();
+        if (count > chunk.capacity) {
+            if (chunk.cache != null) {
+                chunk.cache.dispose();
+            }
+            chunk.capacity = Math.max(MIN_CHUNK_CAPACITY, MathUtils.nextPowerOfTwo(count));
+            if (shader == null) {
+                shader = createShader();
+            }
+            // given as the custom shader, which SpriteCache.dispose() leaves alone, rather than its own
+            chunk.cache = new SpriteCache(chunk.capacity, null, false);
+            chunk.cache.setShader(shader);
+        }
+
+        chunk.dirty = false;
+        chunk.minX = chunk.minY = Float.MAX_VALUE;
+        chunk.maxX = chunk.maxY = -Float.MAX_VALUE;
+        chunk.cache.clear();
+        chunk.cache.beginCache();
+        for (int i = 0; i < count; i++) {
+            int id = ids.get(i);
+            Visual v = vm.get(id);
+            if (v.region == null) {
+                v.region = assetManager.getCurrentRegion(v);
+            }
+            TextureRegion t = v.region;
+            if (t == null) {
+                chunk.dirty = true;  // asset not loaded yet; try again next frame
+                continue;
+            }
+            Position p = pm.get(id);
+            float scale = sm.get(id).scale;
+            float w = t.getRegionWidth(), h = t.getRegionHeight();
+            chunk.cache.add(t, p.position.x, p.position.y, 0, 0, w, h, scale, scale, rm.get(id).angle);
+
+            // a sprite rotated about its origin stays within its diagonal of that origin
+            float reach = (float) Math.sqrt(w * w + h * h) * scale;
+            chunk.minX = Math.min(chunk.minX, p.position.x - reach);
+            chunk.minY = Math.min(chunk.minY, p.position.y - reach);
+            chunk.maxX = Math.max(chunk.maxX, p.position.x + reach);
+            chunk.maxY = Math.max(chunk.maxY, p.position.y + reach);
+        }
+        chunk.cacheId = chunk.cache.endCache();
+        rebuilds++;
+    }
+
+    private static ShaderProgram createShader() {
+        ShaderProgram shader = new ShaderProgram(VERTEX_SHADER, FRAGMENT_SHADER);
+        if (!shader.isCompiled()) {
+            throw new IllegalArgumentException("Error compiling static layer shader: " + shader.getLog());
+        }
+        return shader;
+    }
+
+    /**
+     * @return number of chunk rebuilds since the last call
+     */
+    public int pollRebuilds() {
+        int r = rebuilds;
+        rebuilds = 0;
+        return r;
+    }
+
+    private void ensureCapacity(int entityId) {
+        if (entityId >= chunkOf.length) {
+            int newLength = Math.max(chunkOf.length * 2, entityId + 1);
+            chunkOf = Arrays.copyOf(chunkOf, newLength);
+            cachedX = Arrays.copyOf(cachedX, newLength);
+            cachedY = Arrays.copyOf(cachedY, newLength);
+            cachedAngle = Arrays.copyOf(cachedAngle, newLength);
+            cachedScale = Arrays.copyOf(cachedScale, newLength);
+            cachedVisualId = Arrays.copyOf(cachedVisualId, newLength);
+            watched = Arrays.copyOf(watched, newLength);
+            stillFrames = Arrays.copyOf(stillFrames, newLength);
+        }
+    }
+
+    @Override
+    public void dispose() {
+        for (Chunk chunk : chunks.values()) {
+            if (chunk.cache != null) {
+                chunk.cache.dispose();
+            }
+        }
+        chunks.clear();
+        chunkList.clear();
+        if (shader != null) {
+            shader.dispose();
+            shader = null;
+        }
+    }
+
+    private static class Chunk {
+        final long key;  // chunk coordinates, packed as in add()
+        final IntBag ids = new IntBag();
+        SpriteCache cache;
+        int cacheId;
+        int capacity = 0;
+        boolean dirty = false;
+        int validated;  // validationStamp of the last check
+        float minX, minY, maxX, maxY;  // bounds of the cached sprites
+
+        Chunk(long key) {
+            this.key = key;
+        }
+
+        boolean overlaps(float viewMinX, float viewMinY, float viewMaxX, float viewMaxY) {
+            return maxX >= viewMinX && minX <= viewMaxX && maxY >= viewMinY && minY <= viewMaxY;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package io.github.emergentorganization.emergent2dcore.systems.render;
+
+import com.badlogic.gdx.graphics.g2d.Animation;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.ObjectIntMap;
+
+import java.util.Arrays;
+
+/**
+ * Maps visual ids to integer handles, and handles to their resolved TextureRegion or Animation.
+ * Visual resolves its handle once when its texture or animation is set; the RenderSystem then
+ * looks visuals up by handle (an array index) instead of by string every frame.
+ * Regions and animations are registered by whoever loads them; unregistered ones are registered by the
+ * RenderSystem the first time it resolves them through the AssetManager.
+ * Safe from any thread, as snapshot mode resolves visuals on the simulation thread while the GL thread loads them:
+ * changes are made under a lock on copies of the arrays, which are then published whole, so lookups take no lock.
+ * Registering is meant for loading time, where copying is cheap next to loading the asset.
+ */
+public final class VisualRegistry {
+    public static final int NONE = -1;
+
+    private static final Object lock = new Object();
+    private static final ObjectIntMap<String> handles = new ObjectIntMap<String>();  // guarded by lock
+    private static volatile TextureRegion[] regions = new TextureRegion[64];
+    private static volatile Animation[] animations = new Animation[64];
+
+    private VisualRegistry() {
+    }
+
+    /**
+     * @return the handle for the given visual id, creating one if it has none yet; NONE if id is null
+     */
+    public static int getHandle(String id) {
+        if (id == null) {
+            return NONE;
+        }
+        synchronized (lock) {
+            int handle = handles.get(id, NONE);
+            if (handle == NONE) {
+                handle = handles.size;
+                handles.put(id, handle);
+                if (handle == regions.length) {
+                    regions = Arrays.copyOf(regions, regions.length * 2);
+                    animations = Arrays.copyOf(animations, animations.length * 2);
+                }
+            }
+            return handle;
+        }
+    }
+
+    public static void registerRegion(String id, TextureRegion region) {
+        synchronized (lock) {
+            int handle = getHandle(id);
+            if (handle != NONE) {
+                TextureRegion[] copy = regions.clone();
+                copy[handle] = region;
+                regions = copy;
+            }
+        }
+    }
+
+    public static void registerAnimation(String id, Animation animation) {
+        synchronized (lock) {
+            int handle = getHandle(id);
+            if (handle != NONE) {
+                Animation[] copy = animations.clone();
+                copy[handle] = animation;
+                animations = copy;
+            }
+        }
+    }
+
+    /**
+     * @return the registered region, or null if the handle is NONE or nothing has been registered for it
+     */
+    public static TextureRegion getRegion(int handle) {
+        TextureRegion[] regions = VisualRegistry.regions;
+        return handle == NONE || handle >= regions.length ? null : regions[handle];
+    }
+
+    /**
+     * @return the registered animation, or null if the handle is NONE or nothing has been registered for it
+     */
+    public static Animation getAnimation(int handle) {
+        Animation[] animations = VisualRegistry.animations;
+        return handle == NONE || handle >= animations.length ? null : animations[handle];
+    }
+}
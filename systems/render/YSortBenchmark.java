@@ -0,0 +1,90 @@
+package io.github.emergentorganization.emergent2dcore.systems.render;
+
+import com.artemis.utils.IntBag;
+import io.github.emergentorganization.cellrpg.core.RenderIndex;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Compares the incremental insertion sort used for y-sorted render layers
+ * with a full Arrays.sort of the layer every frame.
+ * Every entity moves a small random distance per frame, as in normal gameplay.
+ * Run with main(); results are printed in ms per frame.
+ */
+public class YSortBenchmark {
+    private static final int[] ENTITY_COUNTS = {1000, 10000, 50000};
+    private static final int WARMUP_FRAMES = 100;
+    private static final int FRAMES = 300;
+    private static final float WORLD_HEIGHT = 1000f;
+    private static final float MAX_STEP = 0.5f;  // max distance moved per frame
+
+    public static void main(String[] args) {
+        for (int n : ENTITY_COUNTS) {
+            incrementalSort(n, WARMUP_FRAMES, new Random(1));
+            double incremental = incrementalSort(n, FRAMES, new Random(1));
+            fullSort(n, WARMUP_FRAMES, new Random(1));
+            double full = fullSort(n, FRAMES, new Random(1));
+            System.out.printf("%6d entities: insertion sort %.3f ms/frame, Arrays.sort %.3f ms/frame%n",
+                    n, incremental, full);
+        }
+    }
+
+    private static double incrementalSort(int n, int frames, Random random) {
+        final int layer = 0;
+        RenderLayers layers = new RenderLayers();
+        RenderIndex index = RenderIndex.values()[layer];
+        float[] y = new float[n];
+        for (int id = 0; id < n; id++) {
+            y[id] = random.nextFloat() * WORLD_HEIGHT;
+            layers.insert(id, index);
+        }
+        setKeys(layers, layer, y);
+        layers.sort(layer);  // the first sort is from insertion order; only the per-frame resorts are timed
+
+        long start = System.nanoTime();
+        for (int frame = 0; frame < frames; frame++) {
+            move(y, random);
+            setKeys(layers, layer, y);
+            layers.sort(layer);
+        }
+        return (System.nanoTime() - start) / 1e6 / frames;
+    }
+
+    private static void setKeys(RenderLayers layers, int layer, float[] y) {
+        IntBag ids = layers.getLayer(layer);
+        int[] data = ids.getData();
+        for (int i = 0, n = ids.size(); i < n; i++) {
+            layers.setSortKeyAt(layer, i, -y[data[i]]);
+        }
+    }
+
+    private static double fullSort(int n, int frames, Random random) {
+        float[] y = new float[n];
+        long[] packed = new long[n];  // sortable key in the high bits, entity id in the low bits
+        for (int id = 0; id < n; id++) {
+            y[id] = random.nextFloat() * WORLD_HEIGHT;
+        }
+
+        long start = System.nanoTime();
+        for (int frame = 0; frame < frames; frame++) {
+            move(y, random);
+            for (int id = 0; id < n; id++) {
+                packed[id] = ((long) sortableBits(-y[id]) << 32) | id;
+            }
+            Arrays.sort(packed);
+        }
+        return (System.nanoTime() - start) / 1e6 / frames;
+    }
+
+    private static void move(float[] y, Random random) {
+        for (int i = 0; i < y.length; i++) {
+            y[i] += (random.nextFloat() * 2 - 1) * MAX_STEP;
+        }
+    }
+
+    private static int sortableBits(float f) {
+        int bits = Float.floatToIntBits(f);
+        return bits ^ ((bits >> 31) & 0x7fffffff);
+    }
+}
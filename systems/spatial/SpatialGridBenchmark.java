@@ -0,0 +1,140 @@
+package io.github.emergentorganization.emergent2dcore.systems.spatial;
+
+import com.artemis.utils.IntBag;
+
+import java.util.Random;
+
+/**
+ * Compares keeping a SpatialHashGrid current by clearing and re-inserting every entity each frame
+ * against updating it in place, where only entities crossing into another cell are re-bucketed.
+ * Entities drift slowly, as most do between two frames; the cost of a radius query against a brute-force scan
+ * is printed as well.
+ * Run with main(); results are printed in ms per frame (or per 1000 queries).
+ */
+public class SpatialGridBenchmark {
+    private static final int[] ENTITY_COUNTS = {10000, 100000};
+    private static final int WARMUP_ITERATIONS = 5000;  // frames, then queries, run down every path before timing
+    private static final int WARMUP_ENTITIES = 1000;
+    private static final int WARMUP_FRAMES = 100;
+    private static final int FRAMES = 300;
+    private static final float CELL_SIZE = 5f;
+    private static final float SPEED = 0.1f;  // world units per frame
+    private static final int QUERIES = 1000;
+    private static final float QUERY_RADIUS = 10f;
+
+    private static long sink;
+
+    public static void main(String[] args) {
+        warmUp();
+        for (int n : ENTITY_COUNTS) {
+            Random random = new Random(1);
+            float worldSize = worldSize(n);
+            float[] x = new float[n], y = new float[n], vx = new float[n], vy = new float[n];
+            scatter(x, y, vx, vy, worldSize, random);
+            int buckets = Integer.highestOneBit(n);
+
+            SpatialHashGrid rebuilt = new SpatialHashGrid(CELL_SIZE, buckets);
+            rebuild(rebuilt, x, y, vx, vy, WARMUP_FRAMES);
+            double rebuild = rebuild(rebuilt, x, y, vx, vy, FRAMES);
+
+            SpatialHashGrid incremental = new SpatialHashGrid(CELL_SIZE, buckets);
+            incremental(incremental, x, y, vx, vy, WARMUP_FRAMES);
+            double update = incremental(incremental, x, y, vx, vy, FRAMES);
+
+            grid(incremental, random, worldSize, QUERIES);
+            double grid = grid(incremental, random, worldSize, QUERIES);
+            brute(x, y, random, worldSize, QUERIES / 10);
+            double brute = brute(x, y, random, worldSize, QUERIES / 10) * 10;
+            System.out.printf("%6d entities: rebuild %.3f ms, incremental %.3f ms; "
+                            + "1000 radius queries: grid %.3f ms, brute force %.3f ms%n",
+                    n, rebuild, update, grid, brute);
+        }
+    }
+
+    /**
+     * Compiles every timed path on a small world first, so the first entity count is not timed
+     * partly interpreted.
+     */
+    private static void warmUp() {
+        int n = WARMUP_ENTITIES;
+        Random random = new Random(2);
+        float worldSize = worldSize(n);
+        float[] x = new float[n], y = new float[n], vx = new float[n], vy = new float[n];
+        scatter(x, y, vx, vy, worldSize, random);
+        SpatialHashGrid grid = new SpatialHashGrid(CELL_SIZE, Integer.highestOneBit(n));
+        rebuild(grid, x, y, vx, vy, WARMUP_ITERATIONS);
+        incremental(grid, x, y, vx, vy, WARMUP_ITERATIONS);
+        grid(grid, random, worldSize, WARMUP_ITERATIONS);
+        brute(x, y, random, worldSize, WARMUP_ITERATIONS);
+    }
+
+    private static float worldSize(int n) {
+        return (float) Math.sqrt(n) * 2f;  // about four entities per cell
+    }
+
+    private static void scatter(float[] x, float[] y, float[] vx, float[] vy, float worldSize, Random random) {
+        for (int i = 0; i < x.length; i++) {
+            x[i] = random.nextFloat() * worldSize;
+            y[i] = random.nextFloat() * worldSize;
+            vx[i] = (random.nextFloat() - 0.5f) * SPEED;
+            vy[i] = (random.nextFloat() - 0.5f) * SPEED;
+        }
+    }
+
+    private static void move(float[] x, float[] y, float[] vx, float[] vy) {
+        for (int i = 0; i < x.length; i++) {
+            x[i] += vx[i];
+            y[i] += vy[i];
+        }
+    }
+
+    private static double rebuild(SpatialHashGrid grid, float[] x, float[] y, float[] vx, float[] vy, int frames) {
+        long start = System.nanoTime();
+        for (int frame = 0; frame < frames; frame++) {
+            move(x, y, vx, vy);
+            grid.clear();
+            for (int i = 0; i < x.length; i++) {
+                grid.update(i, x[i], y[i]);
+            }
+        }
+        return (System.nanoTime() - start) / 1e6 / frames;
+    }
+
+    private static double incremental(SpatialHashGrid grid, float[] x, float[] y, float[] vx, float[] vy,
+                                      int frames) {
+        long start = System.nanoTime();
+        for (int frame = 0; frame < frames; frame++) {
+            move(x, y, vx, vy);
+            for (int i = 0; i < x.length; i++) {
+                grid.update(i, x[i], y[i]);
+            }
+        }
+        return (System.nanoTime() - start) / 1e6 / frames;
+    }
+
+    private static double grid(SpatialHashGrid grid, Random random, float worldSize, int queries) {
+        IntBag found = new IntBag();
+        long start = System.nanoTime();
+        for (int q = 0; q < queries; q++) {
+            found.setSize(0);
+            grid.queryRadius(random.nextFloat() * worldSize, random.nextFloat() * worldSize, QUERY_RADIUS, found);
+            sink += found.size();
+        }
+        return (System.nanoTime() - start) / 1e6;
+    }
+
+    private static double brute(float[] x, float[] y, Random random, float worldSize, int queries) {
+        float radius2 = QUERY_RADIUS * QUERY_RADIUS;
+        long start = System.nanoTime();
+        for (int q = 0; q < queries; q++) {
+            float qx = random.nextFloat() * worldSize, qy = random.nextFloat() * worldSize;
+            for (int i = 0; i < x.length; i++) {
+                float dx = x[i] - qx, dy = y[i] - qy;
+                if (dx * dx + dy * dy <= radius2) {
+                    sink++;
+                }
+            }
+        }
+        return (System.nanoTime() - start) / 1e6;
+    }
+}
@@ -0,0 +1,379 @@
+package io.github.emergentorganization.emergent2dcore.systems.spatial;
+
+import com.artemis.utils.IntBag;
+
+import java.util.Arrays;
+
+/**
+ * Uniform grid over an unbounded world, with the cells hashed into a fixed number of buckets.
+ * Entries are axis-aligned boxes stored in the cell holding their center; queries widen their search by
+ * the largest half-size inserted so far, so boxes are found from whichever cell they overlap.
+ * Boxes more than two cells across are kept in a separate list that every query checks instead,
+ * so one large entity cannot widen every search: queries reach at most one cell further than asked.
+ *
+ * Everything is kept in int and float arrays indexed by entity id (each bucket is a doubly linked list
+ * through the next and previous arrays), so updating and querying allocate nothing once the arrays have grown.
+ * An update that stays within its cell only overwrites the box.
+ * Queries append entity ids to a caller-supplied IntBag without clearing it.
+ * Not thread-safe.
+ */
+public class SpatialHashGrid {
+    private static final int NONE = -1;
+    private static final int OVERSIZED = -2;  // bucket of the boxes kept out of the cells
+
+    private final float cellSize;
+    private final float inverseCellSize;
+    private final int bucketMask;
+    private final int[] heads;
+    private final int[] bucketStamps;  // query stamp of the last query that visited the bucket
+    private int stamp = 0;
+
+    // per entity id
+    private int[] buckets = new int[0];  // NONE when not in the grid
+    private int[] cellX = new int[0];
+    private int[] cellY = new int[0];
+    private int[] next = new int[0];
+    private int[] previous = new int[0];
+    private float[] minX = new float[0];
+    private float[] minY = new float[0];
+    private float[] maxX = new float[0];
+    private float[] maxY = new float[0];
+
+    private int size = 0;
+    private float maxHalfWidth = 0;  // of the boxes in the cells, so never more than cellSize
+    private float maxHalfHeight = 0;
+    private int oversizedHead = NONE;
+    private int oversizedCount = 0;
+
+    // k-nearest results, sorted by distance
+    private int[] nearestIds = new int[8];
+    private float[] nearestDistance2 = new float[8];
+
+    /**
+     * @param cellSize world units per cell side; about the size of a typical query radius works well
+     * @param bucketCount rounded up to a power of two
+     */
+    public SpatialHashGrid(float cellSize, int bucketCount) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("cell size must be positive: " + cellSize);
+        }
+        if (bucketCount < 1) {
+            throw new IllegalArgumentException("bucket count must be positive: " + bucketCount);
+        }
+        this.cellSize = cellSize;
+        this.inverseCellSize = 1f / cellSize;
+        int powerOfTwo = Integer.highestOneBit(bucketCount);
+        if (powerOfTwo < bucketCount) {
+            powerOfTwo <<= 1;
+        }
+        bucketMask = powerOfTwo - 1;
+        heads = new int[powerOfTwo];
+        bucketStamps = new int[powerOfTwo];
+        Arrays.fill(heads, NONE);
+    }
+
+    public float getCellSize() {
+        return cellSize;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(int id) {
+        return id < buckets.length && buckets[id] != NONE;
+    }
+
+    /**
+     * @return entities too large for the cells, checked by every query
+     */
+    public int getOversizedCount() {
+        return oversizedCount;
+    }
+
+    /**
+     * Adds the entity, or moves it if it is in the grid already.
+     */
+    public void update(int id, float minX, float minY, float maxX, float maxY) {
+        if (id >= buckets.length) {
+            grow(id);
+        }
+        this.minX[id] = minX;
+        this.minY[id] = minY;
+        this.maxX[id] = maxX;
+        this.maxY[id] = maxY;
+        float halfWidth = (maxX - minX) / 2f, halfHeight = (maxY - minY) / 2f;
+        if (halfWidth > cellSize || halfHeight > cellSize) {
+            if (buckets[id] == OVERSIZED) {
+                return;
+            }
+            if (buckets[id] != NONE) {
+                unlink(id);
+            } else {
+                size++;
+            }
+            link(id, OVERSIZED);
+            return;
+        }
+        maxHalfWidth = Math.max(maxHalfWidth, halfWidth);
+        maxHalfHeight = Math.max(maxHalfHeight, halfHeight);
+
+        int cx = cell((minX + maxX) / 2f);
+        int cy = cell((minY + maxY) / 2f);
+        if (buckets[id] != NONE) {
+            if (buckets[id] != OVERSIZED && cx == cellX[id] && cy == cellY[id]) {
+                return;
+            }
+            unlink(id);
+        } else {
+            size++;
+        }
+        cellX[id] = cx;
+        cellY[id] = cy;
+        link(id, bucket(cx, cy));
+    }
+
+    public void update(int id, float x, float y) {
+        update(id, x, y, x, y);
+    }
+
+    public void remove(int id) {
+        if (contains(id)) {
+            unlink(id);
+            buckets[id] = NONE;
+            size--;
+        }
+    }
+
+    /**
+     * Empties the grid, keeping its arrays.
+     */
+    public void clear() {
+        Arrays.fill(heads, NONE);
+        Arrays.fill(buckets, NONE);
+        size = 0;
+        maxHalfWidth = 0;
+        maxHalfHeight = 0;
+        oversizedHead = NONE;
+        oversizedCount = 0;
+    }
+
+    /**
+     * Adds the entities whose box overlaps the given one.
+     * @return number of entities added
+     */
+    public int queryRect(float minX, float minY, float maxX, float maxY, IntBag out) {
+        int found = 0;
+        int fromX = cell(minX - maxHalfWidth), toX = cell(maxX + maxHalfWidth);
+        int fromY = cell(minY - maxHalfHeight), toY = cell(maxY + maxHalfHeight);
+        nextStamp();
+        boolean allBuckets = coversAllBuckets(fromX, fromY, toX, toY);
+        for (int i = 0, n = allBuckets ? heads.length : (toX - fromX + 1) * (toY - fromY + 1); i < n; i++) {
+            int bucket = allBuckets ? i : bucket(fromX + i % (toX - fromX + 1), fromY + i / (toX - fromX + 1));
+            if (bucketStamps[bucket] == stamp) {
+                continue;
+            }
+            bucketStamps[bucket] = stamp;
+            found += inRect(heads[bucket], minX, minY, maxX, maxY, out);
+        }
+        return found + inRect(oversizedHead, minX, minY, maxX, maxY, out);
+    }
+
+    private int inRect(int head, float minX, float minY, float maxX, float maxY, IntBag out) {
+        int found = 0;
+        for (int id = head; id != NONE; id = next[id]) {
+            if (this.maxX[id] >= minX && this.minX[id] <= maxX && this.maxY[id] >= minY && this.minY[id] <= maxY) {
+                out.add(id);
+                found++;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Adds the entities whose box is within the radius of the point.
+     * @return number of entities added
+     */
+    public int queryRadius(float x, float y, float radius, IntBag out) {
+        int found = 0;
+        float radius2 = radius * radius;
+        int fromX = cell(x - radius - maxHalfWidth), toX = cell(x + radius + maxHalfWidth);
+        int fromY = cell(y - radius - maxHalfHeight), toY = cell(y + radius + maxHalfHeight);
+        nextStamp();
+        boolean allBuckets = coversAllBuckets(fromX, fromY, toX, toY);
+        for (int i = 0, n = allBuckets ? heads.length : (toX - fromX + 1) * (toY - fromY + 1); i < n; i++) {
+            int bucket = allBuckets ? i : bucket(fromX + i % (toX - fromX + 1), fromY + i / (toX - fromX + 1));
+            if (bucketStamps[bucket] == stamp) {
+                continue;
+            }
+            bucketStamps[bucket] = stamp;
+            found += inRadius(heads[bucket], x, y, radius2, out);
+        }
+        return found + inRadius(oversizedHead, x, y, radius2, out);
+    }
+
+    private int inRadius(int head, float x, float y, float radius2, IntBag out) {
+        int found = 0;
+        for (int id = head; id != NONE; id = next[id]) {
+            if (distance2(id, x, y) <= radius2) {
+                out.add(id);
+                found++;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * @return true if the cell range is larger than the bucket table, so visiting every bucket once is cheaper
+     */
+    private boolean coversAllBuckets(int fromX, int fromY, int toX, int toY) {
+        return (long) (toX - fromX + 1) * (toY - fromY + 1) > heads.length;
+    }
+
+    /**
+     * Adds up to k entities nearest to the point, nearest first, measured to the closest point of their box.
+     * Searches outward ring by ring and stops once no unvisited cell can hold anything nearer.
+     * @param exclude entity id to leave out (e.g. the one asking), or -1
+     * @return number of entities added
+     */
+    public int queryNearest(float x, float y, int k, int exclude, IntBag out) {
+        if (k <= 0 || size == 0) {
+            return 0;
+        }
+        if (k > nearestIds.length) {
+            nearestIds = new int[Integer.highestOneBit(k) << 1];
+            nearestDistance2 = new float[nearestIds.length];
+        }
+        int count = nearestInList(oversizedHead, x, y, k, exclude, 0);
+        nextStamp();
+        int qx = cell(x), qy = cell(y);
+        // boxes stick out of their cell by up to the largest half-size, so rings must reach that much further
+        float reach = Math.max(maxHalfWidth, maxHalfHeight);
+        for (int ring = 0; ; ring++) {
+            if ((long) (2 * ring + 1) * (2 * ring + 1) >= heads.length) {
+                // the rings have wrapped around every bucket; finish with the ones not visited yet
+                for (int bucket = 0; bucket < heads.length; bucket++) {
+                    count = nearestInBucket(bucket, x, y, k, exclude, count);
+                }
+                break;
+            }
+            for (int cy = qy - ring; cy <= qy + ring; cy++) {
+                boolean edgeRow = cy == qy - ring || cy == qy + ring;
+                for (int cx = qx - ring; cx <= qx + ring; cx += edgeRow || ring == 0 ? 1 : 2 * ring) {
+                    count = nearestInBucket(bucket(cx, cy), x, y, k, exclude, count);
+                }
+            }
+            // every box within ring cells of the query cell, less its reach, has been seen
+            float covered = ring * cellSize - reach;
+            if (count == k && covered > 0 && nearestDistance2[k - 1] <= covered * covered) {
+                break;
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            out.add(nearestIds[i]);
+        }
+        return count;
+    }
+
+    private int nearestInBucket(int bucket, float x, float y, int k, int exclude, int count) {
+        if (bucketStamps[bucket] == stamp) {
+            return count;
+        }
+        bucketStamps[bucket] = stamp;
+        return nearestInList(heads[bucket], x, y, k, exclude, count);
+    }
+
+    private int nearestInList(int head, float x, float y, int k, int exclude, int count) {
+        for (int id = head; id != NONE; id = next[id]) {
+            if (id == exclude) {
+                continue;
+            }
+            float d2 = distance2(id, x, y);
+            if (count == k && d2 >= nearestDistance2[k - 1]) {
+                continue;
+            }
+            // insertion into the sorted candidates, dropping the farthest when full
+            int i = count < k ? count++ : k - 1;
+            while (i > 0 && nearestDistance2[i - 1] > d2) {
+                nearestIds[i] = nearestIds[i - 1];
+                nearestDistance2[i] = nearestDistance2[i - 1];
+                i--;
+            }
+            nearestIds[i] = id;
+            nearestDistance2[i] = d2;
+        }
+        return count;
+    }
+
+    /**
+     * @return squared distance from the point to the closest point of the entity's box
+     */
+    private float distance2(int id, float x, float y) {
+        float dx = Math.max(0, Math.max(minX[id] - x, x - maxX[id]));
+        float dy = Math.max(0, Math.max(minY[id] - y, y - maxY[id]));
+        return dx * dx + dy * dy;
+    }
+
+    private void nextStamp() {
+        if (++stamp == 0) {  // wrapped; old stamps could match again
+            Arrays.fill(bucketStamps, 0);
+            stamp = 1;
+        }
+    }
+
+    private int cell(float coordinate) {
+        return (int) Math.floor(coordinate * inverseCellSize);
+    }
+
+    private int bucket(int cx, int cy) {
+        int h = cx * 0x8da6b343 ^ cy * 0xd8163841;
+        return (h ^ (h >>> 16)) & bucketMask;
+    }
+
+    private void link(int id, int bucket) {
+        int head = bucket == OVERSIZED ? oversizedHead : heads[bucket];
+        buckets[id] = bucket;
+        previous[id] = NONE;
+        next[id] = head;
+        if (head != NONE) {
+            previous[head] = id;
+        }
+        if (bucket == OVERSIZED) {
+            oversizedHead = id;
+            oversizedCount++;
+        } else {
+            heads[bucket] = id;
+        }
+    }
+
+    private void unlink(int id) {
+        if (previous[id] != NONE) {
+            next[previous[id]] = next[id];
+        } else if (buckets[id] == OVERSIZED) {
+            oversizedHead = next[id];
+        } else {
+            heads[buckets[id]] = next[id];
+        }
+        if (next[id] != NONE) {
+            previous[next[id]] = previous[id];
+        }
+        if (buckets[id] == OVERSIZED) {
+            oversizedCount--;
+        }
+    }
+
+    private void grow(int id) {
+        int oldLength = buckets.length;
+        int length = Math.max(Math.max(oldLength * 2, id + 1), 64);
+        buckets = Arrays.copyOf(buckets, length);
+        Arrays.fill(buckets, oldLength, length, NONE);
+        cellX = Arrays.copyOf(cellX, length);
+        cellY = Arrays.copyOf(cellY, length);
+        next = Arrays.copyOf(next, length);
+        previous = Arrays.copyOf(previous, length);
+        minX = Arrays.copyOf(minX, length);
+        minY = Arrays.copyOf(minY, length);
+        maxX = Arrays.copyOf(maxX, length);
+        maxY = Arrays.copyOf(maxY, length);
+    }
+}
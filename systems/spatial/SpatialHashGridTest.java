@@ -0,0 +1,188 @@
+package io.github.emergentorganization.emergent2dcore.systems.spatial;
+
+import com.artemis.utils.IntBag;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ */
+public class SpatialHashGridTest {
+    private static final int ENTITIES = 2000;
+    private static final float WORLD_SIZE = 100f;
+
+    private final Random random = new Random(7);
+    private final float[][] boxes = new float[ENTITIES][];
+
+    // few buckets, so distinct cells share buckets and the deduplication is exercised
+    private SpatialHashGrid randomGrid() {
+        SpatialHashGrid grid = new SpatialHashGrid(2f, 64);
+        for (int id = 0; id < ENTITIES; id++) {
+            place(grid, id);
+        }
+        return grid;
+    }
+
+    private void place(SpatialHashGrid grid, int id) {
+        float x = (random.nextFloat() - 0.5f) * WORLD_SIZE;
+        float y = (random.nextFloat() - 0.5f) * WORLD_SIZE;
+        float w = random.nextFloat() * 3f;
+        float h = random.nextFloat() * 3f;
+        boxes[id] = new float[]{x, y, x + w, y + h};
+        grid.update(id, x, y, x + w, y + h);
+    }
+
+    private static float distance2(float[] box, float x, float y) {
+        float dx = Math.max(0, Math.max(box[0] - x, x - box[2]));
+        float dy = Math.max(0, Math.max(box[1] - y, y - box[3]));
+        return dx * dx + dy * dy;
+    }
+
+    private static int[] sorted(IntBag bag) {
+        int[] ids = Arrays.copyOf(bag.getData(), bag.size());
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    private int[] bruteRadius(float x, float y, float radius) {
+        IntBag expected = new IntBag();
+        for (int id = 0; id < ENTITIES; id++) {
+            if (boxes[id] != null && distance2(boxes[id], x, y) <= radius * radius) {
+                expected.add(id);
+            }
+        }
+        return sorted(expected);
+    }
+
+    @Test
+    public void testRadiusMatchesBruteForce() {
+        SpatialHashGrid grid = randomGrid();
+        for (int i = 0; i < 50; i++) {
+            float x = (random.nextFloat() - 0.5f) * WORLD_SIZE;
+            float y = (random.nextFloat() - 0.5f) * WORLD_SIZE;
+            float radius = random.nextFloat() * 10f;
+            IntBag found = new IntBag();
+            grid.queryRadius(x, y, radius, found);
+            assert Arrays.equals(sorted(found), bruteRadius(x, y, radius));
+        }
+    }
+
+    @Test
+    public void testRectMatchesBruteForce() {
+        SpatialHashGrid grid = randomGrid();
+        for (int i = 0; i < 50; i++) {
+            float minX = (random.nextFloat() - 0.5f) * WORLD_SIZE;
+            float minY = (random.nextFloat() - 0.5f) * WORLD_SIZE;
+            float maxX = minX + random.nextFloat() * 20f;
+            float maxY = minY + random.nextFloat() * 20f;
+            IntBag found = new IntBag();
+            grid.queryRect(minX, minY, maxX, maxY, found);
+
+            IntBag expected = new IntBag();
+            for (int id = 0; id < ENTITIES; id++) {
+                float[] b = boxes[id];
+                if (b[2] >= minX && b[0] <= maxX && b[3] >= minY && b[1] <= maxY) {
+                    expected.add(id);
+                }
+            }
+            assert Arrays.equals(sorted(found), sorted(expected));
+        }
+    }
+
+    @Test
+    public void testQueryLargerThanBucketTable() {
+        SpatialHashGrid grid = randomGrid();
+        IntBag found = new IntBag();
+        grid.queryRect(-WORLD_SIZE, -WORLD_SIZE, WORLD_SIZE, WORLD_SIZE, found);
+        assert found.size() == ENTITIES;
+    }
+
+    @Test
+    public void testNearestMatchesBruteForce() {
+        SpatialHashGrid grid = randomGrid();
+        for (int i = 0; i < 50; i++) {
+            float x = (random.nextFloat() - 0.5f) * WORLD_SIZE * 1.5f;
+            float y = (random.nextFloat() - 0.5f) * WORLD_SIZE * 1.5f;
+            int k = 1 + random.nextInt(10);
+            IntBag found = new IntBag();
+            assert grid.queryNearest(x, y, k, -1, found) == k;
+
+            float[] distances = new float[ENTITIES];
+            for (int id = 0; id < ENTITIES; id++) {
+                distances[id] = distance2(boxes[id], x, y);
+            }
+            float[] expected = distances.clone();
+            Arrays.sort(expected);
+            for (int n = 0; n < k; n++) {
+                assert distances[found.get(n)] == expected[n];
+            }
+        }
+    }
+
+    @Test
+    public void testNearestWithFewerEntitiesThanK() {
+        SpatialHashGrid grid = new SpatialHashGrid(1f, 16);
+        grid.update(3, 0, 0);
+        grid.update(5, 40, 40);
+        grid.update(9, -3, 0);
+        IntBag found = new IntBag();
+        assert grid.queryNearest(0, 0, 10, 3, found) == 2;
+        assert found.get(0) == 9 && found.get(1) == 5;
+    }
+
+    @Test
+    public void testMovedAndRemovedEntitiesAreFoundWhereTheyAre() {
+        SpatialHashGrid grid = randomGrid();
+        for (int id = 0; id < ENTITIES; id += 3) {
+            place(grid, id);
+        }
+        for (int id = 1; id < ENTITIES; id += 7) {
+            grid.remove(id);
+            boxes[id] = null;
+        }
+        grid.remove(1);  // removing twice is harmless
+        IntBag found = new IntBag();
+        grid.queryRadius(0, 0, 25f, found);
+        assert Arrays.equals(sorted(found), bruteRadius(0, 0, 25f));
+        assert grid.size() == ENTITIES - (ENTITIES + 5) / 7;
+    }
+
+    @Test
+    public void testOversizedBoxesAreFoundWithoutWideningQueries() {
+        SpatialHashGrid grid = randomGrid();
+        for (int id = 0; id < 10; id++) {
+            float x = (random.nextFloat() - 0.5f) * WORLD_SIZE;
+            float y = (random.nextFloat() - 0.5f) * WORLD_SIZE;
+            boxes[id] = new float[]{x, y, x + 30f, y + 8f};
+            grid.update(id, x, y, x + 30f, y + 8f);
+        }
+        assert grid.getOversizedCount() == 10;
+        for (int i = 0; i < 50; i++) {
+            float x = (random.nextFloat() - 0.5f) * WORLD_SIZE;
+            float y = (random.nextFloat() - 0.5f) * WORLD_SIZE;
+            float radius = random.nextFloat() * 5f;
+            IntBag found = new IntBag();
+            grid.queryRadius(x, y, radius, found);
+            assert Arrays.equals(sorted(found), bruteRadius(x, y, radius));
+
+            found.setSize(0);
+            grid.queryNearest(x, y, 1, -1, found);
+            float nearest = Float.MAX_VALUE;
+            for (int id = 0; id < ENTITIES; id++) {
+                nearest = Math.min(nearest, distance2(boxes[id], x, y));
+            }
+            assert distance2(boxes[found.get(0)], x, y) == nearest;
+        }
+        for (int id = 0; id < 10; id++) {
+            place(grid, id);  // shrunk back into the cells
+        }
+        grid.remove(11);
+        boxes[11] = null;
+        assert grid.getOversizedCount() == 0;
+        assert grid.size() == ENTITIES - 1;
+        IntBag found = new IntBag();
+        grid.queryRadius(0, 0, 25f, found);
+        assert Arrays.equals(sorted(found), bruteRadius(0, 0, 25f));
+    }
+}